@@ -4,8 +4,10 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import redis.clients.jedis.JedisPooled;
 
+@EnableScheduling
 @SpringBootApplication
 public class Application {
 
@@ -21,10 +23,14 @@ public class Application {
     @Bean
     public CommandLineRunner run(
             JetstreamClient client,
-            RedisStreamService redisStreamService) {
+            RedisStreamService redisStreamService,
+            AuthorFloodControl authorFloodControl) {
         return args -> {
             client.setMessageConsumer(message -> {
                 BlueskyEvent blueskyEvent = BlueskyEvent.fromJson(message);
+                if (!authorFloodControl.allow(blueskyEvent)) {
+                    return;
+                }
                 redisStreamService.addToStream("jetstream", blueskyEvent.toMap());
             });
             client.start();
@@ -0,0 +1,125 @@
+package com.redis.consumerapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Estimates posts per author per minute with one Count-Min Sketch per minute, so memory stays
+// fixed however many accounts are active. Authors over the limit are dropped (or sampled) here,
+// before their posts reach the stream and the embedding stage.
+@Service
+public class AuthorFloodControl {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorFloodControl.class);
+    private static final String CMS_KEY_SPACE = "author-cms:";
+    public static final String STATS_KEY = "author-flood:stats";
+    public static final String SUPPRESSED_AUTHORS_KEY = "author-flood:suppressed";
+
+    public enum Mode { DROP, SAMPLE }
+
+    private final JedisPooled jedisPooled;
+    private final Set<Long> createdMinutes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    private final Map<String, Long> suppressedByAuthor = new ConcurrentHashMap<>();
+
+    @Value("${flood-control.enabled:true}")
+    private boolean enabled;
+
+    @Value("${flood-control.max-posts-per-minute:20}")
+    private long maxPostsPerMinute;
+
+    @Value("${flood-control.mode:DROP}")
+    private Mode mode;
+
+    @Value("${flood-control.sample-every:10}")
+    private long sampleEvery;
+
+    public AuthorFloodControl(JedisPooled jedisPooled) {
+        this.jedisPooled = jedisPooled;
+    }
+
+    public boolean allow(BlueskyEvent event) {
+        if (!enabled || event.did == null) {
+            return true;
+        }
+
+        long minute = event.timeUs / 60_000_000;
+        String key = CMS_KEY_SPACE + minute;
+        if (createdMinutes.add(minute)) {
+            create(key);
+            createdMinutes.removeIf(created -> created < minute - 2);
+        }
+
+        long count;
+        try {
+            count = jedisPooled.cmsIncrBy(key, Map.of(event.did, 1L)).getFirst();
+        } catch (JedisDataException e) {
+            // The sketch expired while its minute was still marked as created (a late event, or a
+            // restart of Redis): create it again and retry once
+            logger.debug("Count-min Sketch {} is missing, recreating it: {}", key, e.getMessage());
+            create(key);
+            count = jedisPooled.cmsIncrBy(key, Map.of(event.did, 1L)).getFirst();
+        }
+        if (count <= maxPostsPerMinute) {
+            accepted.incrementAndGet();
+            return true;
+        }
+
+        if (mode == Mode.SAMPLE && (count - maxPostsPerMinute) % sampleEvery == 0) {
+            sampled.incrementAndGet();
+            return true;
+        }
+
+        suppressed.incrementAndGet();
+        suppressedByAuthor.merge(event.did, 1L, Long::sum);
+        return false;
+    }
+
+    private void create(String key) {
+        try {
+            jedisPooled.cmsInitByProb(key, 0.0001, 0.01);
+            // Events can arrive a little late, so the previous minute is kept around briefly
+            jedisPooled.expire(key, 180);
+        } catch (JedisDataException e) {
+            logger.debug("Count-min Sketch {} already exists", key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${flood-control.stats-interval-ms:10000}")
+    public void publishStats() {
+        long acceptedDelta = accepted.getAndSet(0);
+        long sampledDelta = sampled.getAndSet(0);
+        long suppressedDelta = suppressed.getAndSet(0);
+        if (acceptedDelta + sampledDelta + suppressedDelta == 0) {
+            return;
+        }
+
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.hincrBy(STATS_KEY, "accepted", acceptedDelta);
+            pipeline.hincrBy(STATS_KEY, "sampled", sampledDelta);
+            pipeline.hincrBy(STATS_KEY, "suppressed", suppressedDelta);
+            for (String did : suppressedByAuthor.keySet()) {
+                Long count = suppressedByAuthor.remove(did);
+                if (count != null) {
+                    pipeline.zincrby(SUPPRESSED_AUTHORS_KEY, count, did);
+                }
+            }
+            pipeline.sync();
+        }
+
+        if (suppressedDelta > 0) {
+            logger.info("🚫 Flood control: accepted {}, sampled {}, suppressed {} in the last interval",
+                    acceptedDelta, sampledDelta, suppressedDelta);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,6 +69,8 @@ public class BlueskyEvent {
         @JsonProperty("$type")
         public String type;
         public String did;
+        public String tag;
+        public String uri;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -134,6 +137,41 @@ public class BlueskyEvent {
         map.put("parentUri", commit != null && commit.record != null && commit.record.reply != null && commit.record.reply.parent != null ? commit.record.reply.parent.uri : "");
         map.put("rootUri", commit != null && commit.record != null && commit.record.reply != null && commit.record.reply.root != null ? commit.record.reply.root.uri : "");
         map.put("uri", commit != null ? "at://" + did + "/app.bsky.feed.post/" + commit.rkey : "");
+        map.put("tags", String.valueOf(facetValues("app.bsky.richtext.facet#tag")));
+        map.put("mentions", String.valueOf(facetValues("app.bsky.richtext.facet#mention")));
+        map.put("linkDomains", String.valueOf(facetValues("app.bsky.richtext.facet#link")));
         return map;
     }
+
+    // Hashtags are lowercased and links reduced to their host, so they can be counted as topics
+    private List<String> facetValues(String featureType) {
+        if (commit == null || commit.record == null || commit.record.facets == null) {
+            return List.of();
+        }
+
+        return commit.record.facets.stream()
+                .filter(facet -> facet.features != null)
+                .flatMap(facet -> facet.features.stream())
+                .filter(feature -> featureType.equals(feature.type))
+                .map(feature -> switch (featureType) {
+                    case "app.bsky.richtext.facet#tag" -> feature.tag != null ? feature.tag.toLowerCase() : null;
+                    case "app.bsky.richtext.facet#link" -> linkDomain(feature.uri);
+                    default -> feature.did;
+                })
+                .filter(value -> value != null && !value.isBlank())
+                .distinct()
+                .toList();
+    }
+
+    private static String linkDomain(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        try {
+            String host = URI.create(uri).getHost();
+            return host == null ? null : host.toLowerCase().replaceFirst("^www\\.", "");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -2,6 +2,9 @@ package com.redis.filteringapp;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redis.om.spring.annotations.EnableRedisEnhancedRepositories;
+import com.redis.om.spring.client.RedisModulesClient;
+import com.redis.om.spring.ops.pds.TopKOperations;
+import com.redis.om.spring.ops.pds.TopKOperationsImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
@@ -34,12 +37,19 @@ public class Application {
         return new JedisPooled();
     }
 
+    @Bean
+    public TopKOperations<String> topKOperations(RedisModulesClient redisModulesClient) {
+        return new TopKOperationsImpl<>(redisModulesClient);
+    }
+
     @Bean
     public CommandLineRunner runFilteringPipeline(
             RedisStreamService redisStreamService,
             ContentFilterService contentFilterService,
             StreamEventRepository streamEventRepository,
-            FilteringExampleRepository filteringExampleRepository
+            FilteringExampleRepository filteringExampleRepository,
+            FacetTrendingService facetTrendingService,
+            ThreadIndexService threadIndexService
     ) {
         return args -> {
             contentFilterService.loadReferences();
@@ -55,7 +65,9 @@ public class Application {
                     "filter-consumer-1",
                     streamEventRepository,
                     redisStreamService,
-                    contentFilterService
+                    contentFilterService,
+                    facetTrendingService,
+                    threadIndexService
             );
         };
     }
@@ -66,7 +78,9 @@ public class Application {
             String consumer,
             StreamEventRepository streamEventRepository,
             RedisStreamService redisStreamService,
-            ContentFilterService contentFilterService
+            ContentFilterService contentFilterService,
+            FacetTrendingService facetTrendingService,
+            ThreadIndexService threadIndexService
     ) {
         while (!Thread.currentThread().isInterrupted()) {
             List<Map.Entry<String, List<StreamEntry>>> entries = redisStreamService.readFromStream(
@@ -78,6 +92,9 @@ public class Application {
                     .filter(this::filter)
                     .toList();
 
+            // Facet signals are counted for every post, not only the AI-related ones
+            facetTrendingService.record(events);
+
             List<Pair<StreamEvent, Boolean>> results = contentFilterService.isAiRelated(events);
             List<StreamEvent> toBeStored = results.stream().map(pair -> {
                 StreamEvent event = pair.getFirst();
@@ -101,6 +118,8 @@ public class Application {
 
             // Save filtered events to the repository
             streamEventRepository.saveAll(toBeStored);
+            // Replies are indexed for threads about AI, including replies that do not mention it themselves
+            threadIndexService.record(events, toBeStored);
             logger.info("Processed {} events, stored {} filtered events",
                     events.size(), toBeStored.size());
         }
@@ -31,7 +31,20 @@ public class ContentFilterService {
     }
 
     void loadReferences() throws IOException {
-        // Implement the function to load references from the JSON file
+        if (repository.count() > 0) {
+            logger.info("Filtering examples already loaded, skipping.");
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Resource resource = new ClassPathResource("filtering_examples.json");
+        List<String> references = objectMapper.readValue(
+                resource.getInputStream(), new TypeReference<List<String>>() {}
+        );
+
+        references.stream()
+                .map(FilteringExample::new)
+                .forEach(repository::save);
     }
 
     public List<Pair<StreamEvent, Boolean>> isAiRelated(List<StreamEvent> events) {
@@ -58,12 +71,19 @@ public class ContentFilterService {
     }
 
     private List<byte[]> createEmbeddings(List<String> texts) {
-        // Use the embedder to create embeddings for the provided texts
-        return null;
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        return embedder.getTextEmbeddingsAsBytes(texts, FilteringExample$.TEXT);
     }
 
     private boolean vectorSimilaritySearch(byte[] embedding) {
-        // Implement the function to perform vector similarity search
-        return false;
+        List<com.redis.om.spring.tuple.Pair<FilteringExample, Double>> scores = entityStream.of(FilteringExample.class)
+                .filter(FilteringExample$.TEXT_EMBEDDING.knn(1, embedding))
+                .sorted(FilteringExample$._TEXT_EMBEDDING_SCORE)
+                .map(Fields.of(FilteringExample$._THIS, FilteringExample$._TEXT_EMBEDDING_SCORE))
+                .collect(Collectors.toList());
+
+        return scores.stream().anyMatch(score -> score.getSecond() < 0.53);
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.redis.filteringapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hashtags and link domains come straight from the post's facets, so they can be counted for
+// every post, before the AI filter and without any model. Buckets mirror the topic TopK ones.
+@Service
+public class FacetTrendingService {
+    private static final Logger logger = LoggerFactory.getLogger(FacetTrendingService.class);
+    public static final String HASHTAGS_KEY_SPACE = "hashtags-topk:";
+    public static final String DOMAINS_KEY_SPACE = "domains-topk:";
+
+    private final TopKService topKService;
+    // Key -> when it expires in Redis (epoch seconds); a key is created again once it has expired
+    private final Map<String, Long> createdKeys = new ConcurrentHashMap<>();
+
+    public FacetTrendingService(TopKService topKService) {
+        this.topKService = topKService;
+    }
+
+    public void record(List<StreamEvent> events) {
+        long now = Instant.now().getEpochSecond();
+        Map<String, Map<String, Long>> countsByKey = new HashMap<>();
+        Map<String, TrendingWindow> windowByKey = new HashMap<>();
+        for (StreamEvent event : events) {
+            long eventSeconds = event.getTimeUs() / 1_000_000;
+            for (TrendingWindow window : TrendingWindow.values()) {
+                // A backlog older than the bucket's TTL is no longer read by anyone
+                if (window.bucketStart(eventSeconds) + window.getTtl().toSeconds() < now) {
+                    continue;
+                }
+                count(countsByKey, windowByKey, window, window.key(HASHTAGS_KEY_SPACE, eventSeconds), event.getTags());
+                count(countsByKey, windowByKey, window, window.key(DOMAINS_KEY_SPACE, eventSeconds), event.getLinkDomains());
+            }
+        }
+
+        createdKeys.values().removeIf(expiresAt -> expiresAt <= now);
+        countsByKey.forEach((key, counts) -> {
+            TrendingWindow window = windowByKey.get(key);
+            if (!createdKeys.containsKey(key)) {
+                create(key, window, now);
+            }
+            try {
+                topKService.incrBy(key, counts);
+            } catch (JedisDataException e) {
+                // The key expired or was deleted while still known here: create it again and retry once
+                create(key, window, now);
+                try {
+                    topKService.incrBy(key, counts);
+                } catch (JedisDataException retryFailure) {
+                    logger.warn("Counting facets into {} failed: {}", key, retryFailure.getMessage());
+                }
+            }
+        });
+    }
+
+    private void create(String key, TrendingWindow window, long now) {
+        topKService.create(key, window.getTtl());
+        createdKeys.put(key, now + window.getTtl().toSeconds());
+    }
+
+    private void count(Map<String, Map<String, Long>> countsByKey, Map<String, TrendingWindow> windowByKey,
+                       TrendingWindow window, String key, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        windowByKey.put(key, window);
+        Map<String, Long> counts = countsByKey.computeIfAbsent(key, k -> new HashMap<>());
+        values.forEach(value -> counts.merge(value, 1L, Long::sum));
+    }
+}
@@ -45,7 +45,11 @@ public class RedisStreamService {
     }
 
     public void createConsumerGroup(String streamName, String consumerGroupName) {
-        // Implement the function to invoke XGROUP CREATE command
+        try {
+            jedisPooled.xgroupCreate(streamName, consumerGroupName, new StreamEntryID("0-0"), true);
+        } catch (JedisDataException e) {
+            logger.info("Group already exists");
+        }
     }
 
     public List<Map.Entry<String, List<StreamEntry>>> readFromStream(
@@ -53,7 +57,16 @@ public class RedisStreamService {
             String consumerGroup,
             String consumer,
             int count) {
-        // Implement the function to invoke XREADGROUP command
-        return null;
+        Map<String, StreamEntryID> streams = new HashMap<>();
+        streams.put(streamName, StreamEntryID.XREADGROUP_UNDELIVERED_ENTRY);
+
+        List<Map.Entry<String, List<StreamEntry>>> entries = jedisPooled.xreadGroup(
+                consumerGroup,
+                consumer,
+                XReadGroupParams.xReadGroupParams().count(count),
+                streams
+        );
+
+        return entries != null ? entries : Collections.emptyList();
     }
 }
@@ -25,6 +25,9 @@ public class StreamEvent {
     private String parentUri;
     private String rootUri;
     private List<String> langs;
+    private List<String> tags;
+    private List<String> mentions;
+    private List<String> linkDomains;
 
     @Transient
     private String redisStreamEntryId;
@@ -53,7 +56,7 @@ public class StreamEvent {
             langsStr.replace("[", "").replace("]", "").split(", ")
         );
 
-        return new StreamEvent(
+        StreamEvent event = new StreamEvent(
                 fields.getOrDefault("uri", ""), // ID
                 fields.getOrDefault("did", ""),
                 fields.getOrDefault("rkey", ""),
@@ -66,6 +69,19 @@ public class StreamEvent {
                 langs,
                 entry.getID().toString()
         );
+        event.setTags(parseList(fields.get("tags")));
+        event.setMentions(parseList(fields.get("mentions")));
+        event.setLinkDomains(parseList(fields.get("linkDomains")));
+        return event;
+    }
+
+    private static List<String> parseList(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.replace("[", "").replace("]", "").split(", "))
+                .filter(item -> !item.isBlank())
+                .toList();
     }
 
     // Convert to Map for Redis Stream
@@ -80,6 +96,9 @@ public class StreamEvent {
         map.put("parentUri", this.parentUri);
         map.put("rootUri", this.rootUri);
         map.put("langs", this.langs.toString());
+        map.put("tags", this.tags != null ? this.tags.toString() : "[]");
+        map.put("mentions", this.mentions != null ? this.mentions.toString() : "[]");
+        map.put("linkDomains", this.linkDomains != null ? this.linkDomains.toString() : "[]");
         return map;
     }
 
@@ -164,4 +183,28 @@ public class StreamEvent {
     public String getRedisStreamEntryId() {
         return redisStreamEntryId;
     }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public List<String> getMentions() {
+        return mentions;
+    }
+
+    public void setMentions(List<String> mentions) {
+        this.mentions = mentions;
+    }
+
+    public List<String> getLinkDomains() {
+        return linkDomains;
+    }
+
+    public void setLinkDomains(List<String> linkDomains) {
+        this.linkDomains = linkDomains;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.redis.filteringapp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.args.ExpiryOption;
+import redis.clients.jedis.params.ZAddParams;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Reply threads about AI, keyed by root post URI:
+//   thread:<root>            sorted set of reply URIs by timeUs
+//   thread-parents:<root>    hash of reply URI -> parent URI (the thread's adjacency list)
+//   threads:ai-roots         sorted set of roots of AI threads by the timeUs of their latest activity
+//   threads:last-activity    sorted set of roots by the timeUs of their latest reply
+//   threads-hot:<1m|1h>:<b>  sorted set of roots by replies made in that bucket
+// A thread is about AI once its root post or any reply passed the AI filter; only then are its
+// replies indexed, so the index grows with the AI traffic rather than the whole firehose.
+@Service
+public class ThreadIndexService {
+    public static final String THREAD_KEY_SPACE = "thread:";
+    public static final String PARENTS_KEY_SPACE = "thread-parents:";
+    public static final String AI_ROOTS_KEY = "threads:ai-roots";
+    public static final String LAST_ACTIVITY_KEY = "threads:last-activity";
+    public static final String HOT_KEY_SPACE = "threads-hot:";
+
+    private final JedisPooled jedisPooled;
+
+    @Value("${threads.retention:7d}")
+    private Duration retention;
+
+    public ThreadIndexService(JedisPooled jedisPooled) {
+        this.jedisPooled = jedisPooled;
+    }
+
+    public void record(List<StreamEvent> events, List<StreamEvent> aiRelated) {
+        Set<String> aiUris = aiRelated.stream().map(StreamEvent::getUri).collect(Collectors.toSet());
+        long retentionSeconds = retention.toSeconds();
+
+        List<StreamEvent> replies = events.stream()
+                .filter(event -> event.getRootUri() != null && !event.getRootUri().isBlank())
+                .toList();
+        List<StreamEvent> aiRoots = aiRelated.stream()
+                .filter(event -> event.getRootUri() == null || event.getRootUri().isBlank())
+                .toList();
+
+        List<Double> rootScores = replies.isEmpty() ? List.of() : jedisPooled.zmscore(AI_ROOTS_KEY,
+                replies.stream().map(StreamEvent::getRootUri).toArray(String[]::new));
+        List<StreamEvent> indexed = new ArrayList<>();
+        for (int i = 0; i < replies.size(); i++) {
+            StreamEvent reply = replies.get(i);
+            if (rootScores.get(i) != null || aiUris.contains(reply.getUri()) || aiUris.contains(reply.getRootUri())) {
+                indexed.add(reply);
+            }
+        }
+        if (indexed.isEmpty() && aiRoots.isEmpty()) {
+            return;
+        }
+
+        try (var pipeline = jedisPooled.pipelined()) {
+            for (StreamEvent root : aiRoots) {
+                pipeline.zadd(AI_ROOTS_KEY, root.getTimeUs(), root.getUri(), ZAddParams.zAddParams().gt());
+            }
+            for (StreamEvent reply : indexed) {
+                String root = reply.getRootUri();
+                String threadKey = THREAD_KEY_SPACE + root;
+                String parentsKey = PARENTS_KEY_SPACE + root;
+
+                // An AI-related reply makes its whole thread an AI thread; any reply keeps it one
+                pipeline.zadd(AI_ROOTS_KEY, reply.getTimeUs(), root, ZAddParams.zAddParams().gt());
+                pipeline.zadd(threadKey, reply.getTimeUs(), reply.getUri());
+                pipeline.hset(parentsKey, reply.getUri(), reply.getParentUri() != null ? reply.getParentUri() : root);
+                pipeline.expire(threadKey, retentionSeconds);
+                pipeline.expire(parentsKey, retentionSeconds);
+                pipeline.zadd(LAST_ACTIVITY_KEY, reply.getTimeUs(), root, ZAddParams.zAddParams().gt());
+
+                long eventSeconds = reply.getTimeUs() / 1_000_000;
+                for (TrendingWindow window : TrendingWindow.values()) {
+                    String hotKey = window.key(HOT_KEY_SPACE, eventSeconds);
+                    pipeline.zincrby(hotKey, 1, root);
+                    pipeline.expire(hotKey, window.getTtl().toSeconds(), ExpiryOption.NX);
+                }
+            }
+
+            // Threads without a reply for the whole retention period have already expired
+            long cutoffUs = (System.currentTimeMillis() - retention.toMillis()) * 1_000;
+            pipeline.zremrangeByScore(LAST_ACTIVITY_KEY, Double.NEGATIVE_INFINITY, cutoffUs);
+            pipeline.zremrangeByScore(AI_ROOTS_KEY, Double.NEGATIVE_INFINITY, cutoffUs);
+            pipeline.sync();
+        }
+    }
+}
@@ -9,22 +9,31 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.ollama.OllamaChatModel;
 import org.springframework.ai.ollama.api.OllamaApi;
 import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
 import redis.clients.jedis.JedisPooled;
 import redis.clients.jedis.resps.StreamEntry;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
+@EnableScheduling
 @EnableRedisEnhancedRepositories
 @SpringBootApplication
 public class Application {
@@ -46,9 +55,44 @@ public class Application {
     }
 
     @Bean
+    @ConditionalOnProperty(name = "topics.extraction.provider", havingValue = "ollama", matchIfMissing = true)
     public OllamaChatModel chatModel() {
-        // Implement OllamaChatModel bean with appropriate configuration
-        return null;
+        OllamaApi ollamaApi = OllamaApi.builder()
+                .baseUrl("http://localhost:11434")
+                .restClientBuilder(RestClient.builder())
+                .webClientBuilder(WebClient.builder())
+                .responseErrorHandler(new DefaultResponseErrorHandler())
+                .build();
+
+        OllamaOptions options = OllamaOptions.builder()
+                .model("llama3.2")
+                .build();
+
+        return OllamaChatModel.builder()
+                .ollamaApi(ollamaApi)
+                .defaultOptions(options)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "topics.extraction.provider", havingValue = "openai")
+    public OpenAiChatModel openAiChatModel() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setReadTimeout((int) Duration.ofSeconds(60).toMillis());
+
+        OpenAiApi openAiApi = OpenAiApi.builder()
+                .apiKey(System.getenv("OPENAI_API_KEY"))
+                .restClientBuilder(RestClient.builder().requestFactory(factory))
+                .build();
+
+        OpenAiChatOptions options = OpenAiChatOptions.builder()
+                .model("gpt-4o-mini")
+                .build();
+
+        return OpenAiChatModel.builder()
+                .openAiApi(openAiApi)
+                .defaultOptions(options)
+                .build();
     }
 
     @Bean
@@ -56,21 +100,59 @@ public class Application {
             RedisStreamService redisStreamService,
             StreamEventRepository streamEventRepository,
             TopicExtractionService topicExtractionService,
-            TopKService topKService) {
+            TopicVocabularyService topicVocabularyService,
+            TopicRemergeJob topicRemergeJob,
+            TopicCentroidClassifier topicCentroidClassifier,
+            TopKAggregator topKAggregator,
+            TrendingScoreService trendingScoreService,
+            TopicTimeSeriesService topicTimeSeriesService,
+            TopicCooccurrenceService topicCooccurrenceService,
+            TopicAuthorService topicAuthorService,
+            LlmThrottle llmThrottle,
+            ConsumerLifecycle consumerLifecycle,
+            @Value("${topics.extraction.write-batch-size:20}") int writeBatchSize,
+            @Value("${topics.extraction.write-max-delay-ms:1000}") long writeMaxDelayMs,
+            @Value("${topics.extraction.claim-interval-ms:30000}") long claimIntervalMs,
+            @Value("${topics.extraction.claim-min-idle:5m}") Duration claimMinIdle,
+            @Value("${topics.extraction.max-claims:3}") int maxClaims) {
         return args -> {
+            topicVocabularyService.migrateLegacyTopics();
+            topicRemergeJob.runIfEnabled();
+            if (topicCentroidClassifier.isEnabled()) {
+                topicCentroidClassifier.load();
+            }
+
             String streamName = "filtered-events";
             String consumerGroup = "topic-extraction-group";
 
             redisStreamService.createConsumerGroup(streamName, consumerGroup);
 
+            TopicResultWriter resultWriter = new TopicResultWriter(
+                    streamName,
+                    consumerGroup,
+                    writeBatchSize,
+                    writeMaxDelayMs,
+                    streamEventRepository,
+                    redisStreamService,
+                    topKAggregator,
+                    trendingScoreService,
+                    topicTimeSeriesService,
+                    topicCooccurrenceService,
+                    topicAuthorService
+            );
+
             consumeStream(
                     streamName,
                     consumerGroup,
                     "topic-extractor-consumer-1",
-                    streamEventRepository,
                     redisStreamService,
-                    topKService,
-                    topicExtractionService
+                    topicExtractionService,
+                    llmThrottle,
+                    resultWriter,
+                    consumerLifecycle,
+                    claimIntervalMs,
+                    claimMinIdle,
+                    maxClaims
             );
         };
     }
@@ -79,32 +161,80 @@ public class Application {
             String streamName,
             String consumerGroup,
             String consumer,
-            StreamEventRepository streamEventRepository,
             RedisStreamService redisStreamService,
-            TopKService topKService,
-            TopicExtractionService topicExtractionService
-    ) {
-        while (!Thread.currentThread().isInterrupted()) {
-            List<Map.Entry<String, List<StreamEntry>>> entries = redisStreamService.readFromStream(
-                    streamName, consumerGroup, consumer, 5);
-
-            List<StreamEvent> streamEvents = entries.stream().flatMap(entry ->
-                            entry.getValue()
-                                    .stream()
-                                    .map(StreamEvent::fromStreamEntry)
-            ).toList();
-
-            streamEvents.forEach(event -> {
-                logger.info("Filtered event: {}", event.getUri());
-                List<String> topics = topicExtractionService.processTopics(event);
-
-                if (!topics.isEmpty()) {
-                    // Implement logic to save topics to their respective posts and to TopK in Redis
+            TopicExtractionService topicExtractionService,
+            LlmThrottle llmThrottle,
+            TopicResultWriter resultWriter,
+            ConsumerLifecycle consumerLifecycle,
+            long claimIntervalMs,
+            Duration claimMinIdle,
+            int maxClaims
+    ) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(llmThrottle.getMaxConcurrency());
+        long nextClaimMs = 0;
+        consumerLifecycle.loopStarted();
+
+        // On shutdown the loop stops reading, closing the executor waits for in-flight batches,
+        // and the writer flushes (and acknowledges) their results before the context goes away
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (consumerLifecycle.isAcceptingWork() && !Thread.currentThread().isInterrupted()) {
+                resultWriter.flushIfDue();
+
+                // Only read what can be worked on right away, the rest stays in the stream
+                inFlight.acquire();
+
+                List<StreamEntry> claimed = List.of();
+                if (System.currentTimeMillis() >= nextClaimMs) {
+                    claimed = redisStreamService.claimIdle(streamName, consumerGroup, consumer,
+                            claimMinIdle, topicExtractionService.getBatchSize(), maxClaims);
+                    // Keep claiming while there is a backlog of stale entries
+                    if (claimed.isEmpty()) {
+                        nextClaimMs = System.currentTimeMillis() + claimIntervalMs;
+                    }
+                }
+
+                List<StreamEvent> streamEvents;
+                if (!claimed.isEmpty()) {
+                    streamEvents = claimed.stream().map(StreamEvent::fromStreamEntry).toList();
+                } else {
+                    List<Map.Entry<String, List<StreamEntry>>> entries = redisStreamService.readFromStream(
+                            streamName, consumerGroup, consumer, topicExtractionService.getBatchSize());
+
+                    streamEvents = entries.stream().flatMap(entry ->
+                                    entry.getValue()
+                                            .stream()
+                                            .map(StreamEvent::fromStreamEntry)
+                    ).toList();
+                }
+
+                if (streamEvents.isEmpty()) {
+                    inFlight.release();
+                    continue;
                 }
 
-                // Acknowledge the message
-                redisStreamService.acknowledgeMessage(streamName, consumerGroup, event.getRedisStreamEntryId());
-            });
+                executor.submit(() -> {
+                    try {
+                        Map<String, List<String>> topicsByEntryId = topicExtractionService.processTopics(streamEvents);
+
+                        streamEvents.forEach(event -> {
+                            logger.info("Filtered event: {}", event.getUri());
+                            resultWriter.add(event, topicsByEntryId.getOrDefault(event.getRedisStreamEntryId(), List.of()));
+                        });
+                    } catch (Exception e) {
+                        // Left unacknowledged: claimIdle retries them once they have been idle for
+                        // claim-min-idle, and dead-letters them after max-claims attempts
+                        logger.error("Topic extraction failed for {} events: {}", streamEvents.size(), e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            try {
+                resultWriter.flush();
+            } finally {
+                consumerLifecycle.loopStopped();
+            }
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.redis.topicextractorapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Lets the consumer loop finish before the context is torn down: stop() asks the loop to stop
+// reading, then waits until it has drained its in-flight batches and flushed the result writer.
+// Beans are destroyed (and TopKAggregator flushed by its @PreDestroy) only after that.
+@Component
+public class ConsumerLifecycle implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerLifecycle.class);
+
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile boolean running;
+    private volatile boolean loopStarted;
+
+    @Value("${topics.extraction.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    public boolean isAcceptingWork() {
+        return running;
+    }
+
+    public void loopStarted() {
+        loopStarted = true;
+    }
+
+    public void loopStopped() {
+        stopped.countDown();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (!loopStarted) {
+            return;
+        }
+
+        try {
+            if (!stopped.await(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Consumer loop did not stop within {}, unacknowledged entries will be claimed again", shutdownTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,95 @@
+package com.redis.topicextractorapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ExtractionMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionMetrics.class);
+    private static final long REPORT_EVERY = 1_000;
+
+    private final AtomicLong posts = new AtomicLong();
+    private final AtomicLong llmCalls = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong completionTokens = new AtomicLong();
+    private final AtomicLong batchFallbacks = new AtomicLong();
+    private final AtomicLong nearDuplicateLookups = new AtomicLong();
+    private final AtomicLong nearDuplicateHits = new AtomicLong();
+    private final AtomicLong classifierHits = new AtomicLong();
+    private final AtomicLong classifierShadowed = new AtomicLong();
+    private final AtomicLong classifierAgreements = new AtomicLong();
+
+    public void recordLlmCall(ChatResponse response) {
+        llmCalls.incrementAndGet();
+
+        Usage usage = response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+        if (usage != null) {
+            promptTokens.addAndGet(usage.getPromptTokens() != null ? usage.getPromptTokens() : 0);
+            completionTokens.addAndGet(usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0);
+        }
+    }
+
+    public void recordBatchFallback() {
+        batchFallbacks.incrementAndGet();
+    }
+
+    public void recordNearDuplicateLookup(boolean hit) {
+        nearDuplicateLookups.incrementAndGet();
+        if (hit) {
+            nearDuplicateHits.incrementAndGet();
+        }
+    }
+
+    public void recordClassifierHit() {
+        classifierHits.incrementAndGet();
+    }
+
+    public void recordClassifierAgreement(boolean agreed) {
+        classifierShadowed.incrementAndGet();
+        if (agreed) {
+            classifierAgreements.incrementAndGet();
+        }
+    }
+
+    public void recordPosts(int count) {
+        long before = posts.getAndAdd(count);
+        if (before / REPORT_EVERY != (before + count) / REPORT_EVERY) {
+            report();
+        }
+    }
+
+    public void report() {
+        long total = posts.get();
+        if (total == 0) {
+            return;
+        }
+
+        double per1000 = 1_000.0 / total;
+        logger.info("📊 Per 1,000 posts: {} LLM calls, {} prompt tokens, {} completion tokens ({} posts, {} batch fallbacks)",
+                Math.round(llmCalls.get() * per1000),
+                Math.round(promptTokens.get() * per1000),
+                Math.round(completionTokens.get() * per1000),
+                total,
+                batchFallbacks.get());
+
+        long lookups = nearDuplicateLookups.get();
+        if (lookups > 0) {
+            logger.info("📊 Near-duplicate hit rate: {}% ({} of {} posts reused topics)",
+                    Math.round(nearDuplicateHits.get() * 1000.0 / lookups) / 10.0, nearDuplicateHits.get(), lookups);
+        }
+
+        long withoutLlm = nearDuplicateHits.get() + classifierHits.get();
+        long shadowed = classifierShadowed.get();
+        logger.info("📊 Served without an LLM call: {}% (classifier {}, near-duplicates {}); classifier agreement {}% over {} shadowed posts",
+                Math.round(withoutLlm * 1000.0 / total) / 10.0,
+                classifierHits.get(),
+                nearDuplicateHits.get(),
+                shadowed > 0 ? Math.round(classifierAgreements.get() * 1000.0 / shadowed) / 10.0 : "n/a",
+                shadowed);
+    }
+}
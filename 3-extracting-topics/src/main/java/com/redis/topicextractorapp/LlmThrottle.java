@@ -0,0 +1,36 @@
+package com.redis.topicextractorapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LlmThrottle {
+    private static final Logger logger = LoggerFactory.getLogger(LlmThrottle.class);
+    private final int maxConcurrency;
+    private final RateLimiter rateLimiter;
+
+    public LlmThrottle(
+            @Value("${topics.extraction.provider:ollama}") String provider,
+            @Value("${topics.extraction.ollama.max-concurrency:2}") int ollamaMaxConcurrency,
+            @Value("${topics.extraction.ollama.requests-per-second:2}") double ollamaRequestsPerSecond,
+            @Value("${topics.extraction.openai.max-concurrency:16}") int openAiMaxConcurrency,
+            @Value("${topics.extraction.openai.requests-per-second:8}") double openAiRequestsPerSecond) {
+        boolean openAi = "openai".equalsIgnoreCase(provider);
+        this.maxConcurrency = Math.max(1, openAi ? openAiMaxConcurrency : ollamaMaxConcurrency);
+        double requestsPerSecond = openAi ? openAiRequestsPerSecond : ollamaRequestsPerSecond;
+        this.rateLimiter = new RateLimiter(requestsPerSecond, maxConcurrency);
+
+        logger.info("Topic extraction with {}: {} concurrent requests, {} requests/s",
+                openAi ? "OpenAI" : "Ollama", maxConcurrency, requestsPerSecond);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void acquire() {
+        rateLimiter.acquire();
+    }
+}
@@ -0,0 +1,126 @@
+package com.redis.topicextractorapp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+@Component
+public class NearDuplicateDetector {
+    private final int windowSize;
+    private final int maxHammingDistance;
+    private final int bands;
+    private final int bandBits;
+
+    private final Deque<Fingerprint> window = new ArrayDeque<>();
+    private final List<Map<Long, List<Fingerprint>>> bandIndex = new ArrayList<>();
+
+    private record Fingerprint(long hash, List<String> topics) {}
+
+    public NearDuplicateDetector(
+            @Value("${topics.near-duplicates.window-size:10000}") int windowSize,
+            @Value("${topics.near-duplicates.max-hamming-distance:3}") int maxHammingDistance) {
+        this.windowSize = windowSize;
+        this.maxHammingDistance = maxHammingDistance;
+        // One more band than allowed differing bits: two fingerprints within the distance share at least one band.
+        // Bits left over when 64 doesn't divide evenly are simply not banded, which keeps that guarantee
+        this.bands = Math.min(64, maxHammingDistance + 1);
+        this.bandBits = 64 / bands;
+
+        for (int i = 0; i < bands; i++) {
+            bandIndex.add(new HashMap<>());
+        }
+    }
+
+    public Optional<List<String>> findTopics(String text) {
+        // Posts without any words (only emoji or punctuation) would all share one fingerprint
+        return hasWords(text) ? findTopics(simHash(text)) : Optional.empty();
+    }
+
+    synchronized Optional<List<String>> findTopics(long hash) {
+        for (int band = 0; band < bands; band++) {
+            List<Fingerprint> candidates = bandIndex.get(band).getOrDefault(bandValue(hash, band), List.of());
+            for (Fingerprint candidate : candidates) {
+                if (Long.bitCount(candidate.hash() ^ hash) <= maxHammingDistance) {
+                    return Optional.of(candidate.topics());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void record(String text, List<String> topics) {
+        if (hasWords(text)) {
+            record(simHash(text), topics);
+        }
+    }
+
+    synchronized void record(long hash, List<String> topics) {
+        Fingerprint fingerprint = new Fingerprint(hash, topics);
+        window.addLast(fingerprint);
+        for (int band = 0; band < bands; band++) {
+            bandIndex.get(band).computeIfAbsent(bandValue(fingerprint.hash(), band), value -> new ArrayList<>()).add(fingerprint);
+        }
+
+        while (window.size() > windowSize) {
+            Fingerprint evicted = window.removeFirst();
+            for (int band = 0; band < bands; band++) {
+                long value = bandValue(evicted.hash(), band);
+                List<Fingerprint> bucket = bandIndex.get(band).get(value);
+                bucket.remove(evicted);
+                if (bucket.isEmpty()) {
+                    bandIndex.get(band).remove(value);
+                }
+            }
+        }
+    }
+
+    private long bandValue(long hash, int band) {
+        long mask = bandBits == 64 ? -1L : (1L << bandBits) - 1;
+        return (hash >>> (band * bandBits)) & mask;
+    }
+
+    static boolean hasWords(String text) {
+        return text != null && words(text).length > 0;
+    }
+
+    private static String[] words(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}:/.#@_-]+", " ")
+                .trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split("\\s+");
+    }
+
+    // 64-bit SimHash over word trigrams, so reposts with a changed word or two still collide
+    static long simHash(String text) {
+        String[] words = words(text);
+
+        int[] weights = new int[64];
+        int shingles = Math.max(1, words.length - 2);
+        for (int i = 0; i < shingles; i++) {
+            String shingle = String.join(" ", Arrays.copyOfRange(words, i, Math.min(words.length, i + 3)));
+            long feature = fnv1a64(shingle);
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((feature >>> bit) & 1) == 1 ? 1 : -1;
+            }
+        }
+
+        long hash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                hash |= 1L << bit;
+            }
+        }
+        return hash;
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,56 @@
+package com.redis.topicextractorapp;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class RateLimiter {
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public RateLimiter(double permitsPerSecond, double capacity) {
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, double capacity, LongSupplier nanoTime) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.nanoTime = nanoTime;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nanoTime.getAsLong();
+    }
+
+    public void acquire() {
+        while (true) {
+            long waitNanos = tryAcquire();
+            if (waitNanos == 0) {
+                return;
+            }
+
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a rate limit permit", e);
+            }
+        }
+    }
+
+    // Takes a permit and returns 0, or returns how long until the next permit refills
+    synchronized long tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerSecond * TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+    }
+}
@@ -6,19 +6,20 @@ import org.springframework.stereotype.Service;
 import redis.clients.jedis.JedisPooled;
 import redis.clients.jedis.StreamEntryID;
 import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XAutoClaimParams;
 import redis.clients.jedis.params.XReadGroupParams;
 import redis.clients.jedis.resps.StreamEntry;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
 
 @Service
 public class RedisStreamService {
 
     private final static Logger logger = LoggerFactory.getLogger(RedisStreamService.class);
     private final JedisPooled jedisPooled;
+    private final Map<String, StreamEntryID> claimCursors = new HashMap<>();
 
     public RedisStreamService(JedisPooled jedisPooled) {
         this.jedisPooled = jedisPooled;
@@ -31,6 +32,61 @@ public class RedisStreamService {
         jedisPooled.xack(streamName, consumerGroup, new StreamEntryID(entryId));
     }
 
+    public void acknowledgeMessages(
+            String streamName,
+            String consumerGroup,
+            List<String> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        jedisPooled.xack(streamName, consumerGroup, entryIds.stream()
+                .map(StreamEntryID::new)
+                .toArray(StreamEntryID[]::new));
+        jedisPooled.hdel(claimsKey(streamName, consumerGroup), entryIds.toArray(String[]::new));
+    }
+
+    // Entries left pending for longer than minIdle (a failed batch, or a crashed consumer) are
+    // claimed for another attempt. Each claim is counted; entries claimed more than maxClaims times
+    // are copied to <stream>:dead-letter and acknowledged so they stop coming back.
+    public List<StreamEntry> claimIdle(String streamName, String consumerGroup, String consumer,
+                                       Duration minIdle, int count, int maxClaims) {
+        String cursorKey = streamName + ":" + consumerGroup;
+        Map.Entry<StreamEntryID, List<StreamEntry>> claimed = jedisPooled.xautoclaim(
+                streamName, consumerGroup, consumer, minIdle.toMillis(),
+                claimCursors.getOrDefault(cursorKey, new StreamEntryID("0-0")),
+                XAutoClaimParams.xAutoClaimParams().count(count));
+        claimCursors.put(cursorKey, claimed.getKey());
+
+        List<StreamEntry> retries = new ArrayList<>();
+        List<String> deadLettered = new ArrayList<>();
+        for (StreamEntry entry : claimed.getValue()) {
+            // Entries trimmed from the stream while pending come back without fields
+            if (entry == null || entry.getFields() == null) {
+                continue;
+            }
+
+            long claims = jedisPooled.hincrBy(claimsKey(streamName, consumerGroup), entry.getID().toString(), 1);
+            if (claims > maxClaims) {
+                Map<String, String> fields = new HashMap<>(entry.getFields());
+                fields.put("sourceId", entry.getID().toString());
+                jedisPooled.xadd(streamName + ":dead-letter", XAddParams.xAddParams().maxLen(10_000).approximateTrimming(), fields);
+                deadLettered.add(entry.getID().toString());
+            } else {
+                retries.add(entry);
+            }
+        }
+
+        if (!deadLettered.isEmpty()) {
+            acknowledgeMessages(streamName, consumerGroup, deadLettered);
+            logger.warn("Dead-lettered {} entries of {} after {} claims", deadLettered.size(), streamName, maxClaims);
+        }
+        return retries;
+    }
+
+    private static String claimsKey(String streamName, String consumerGroup) {
+        return streamName + ":claims:" + consumerGroup;
+    }
+
     public void createConsumerGroup(String streamName, String consumerGroupName) {
         try {
             jedisPooled.xgroupCreate(streamName, consumerGroupName, new StreamEntryID("0-0"), true);
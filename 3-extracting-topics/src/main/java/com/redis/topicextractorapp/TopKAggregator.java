@@ -0,0 +1,182 @@
+package com.redis.topicextractorapp;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Accumulates TopK mentions in memory and sends one TOPK.INCRBY per bucket key on each flush.
+// Writers only touch LongAdders; the flusher sends the difference from what it last sent,
+// so increments racing with a flush are picked up by the next one instead of being lost.
+// Writers share the read lock; a bucket is only retired under the write lock, after which no
+// writer can reach its counters, so its last delta is complete.
+@Component
+public class TopKAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(TopKAggregator.class);
+    private static final String TOPK_KEY_SPACE = "topics-topk:";
+
+    private static class BucketCounters {
+        private final TrendingWindow window;
+        private final long start;
+        private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+        // Only touched by the flusher
+        private final Map<String, Long> sent = new HashMap<>();
+        private boolean created;
+
+        BucketCounters(TrendingWindow window, long start) {
+            this.window = window;
+            this.start = start;
+        }
+    }
+
+    private final TopKService topKService;
+    private final Map<String, BucketCounters> buckets = new ConcurrentHashMap<>();
+    private final ReadWriteLock retireLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicInteger newTopicsSinceFlush = new AtomicInteger();
+
+    @Value("${topics.topk.flush-max-topics:500}")
+    private int flushMaxTopics;
+
+    public TopKAggregator(TopKService topKService) {
+        this.topKService = topKService;
+    }
+
+    // Bucketed by when the post was made, not by when it was processed
+    public void add(long eventSeconds, List<String> topics) {
+        retireLock.readLock().lock();
+        try {
+            for (TrendingWindow window : TrendingWindow.values()) {
+                BucketCounters bucket = buckets.computeIfAbsent(window.key(TOPK_KEY_SPACE, eventSeconds),
+                        k -> new BucketCounters(window, window.bucketStart(eventSeconds)));
+                for (String topic : topics) {
+                    LongAdder adder = bucket.counters.get(topic);
+                    if (adder == null) {
+                        adder = bucket.counters.computeIfAbsent(topic, t -> {
+                            newTopicsSinceFlush.incrementAndGet();
+                            return new LongAdder();
+                        });
+                    }
+                    adder.increment();
+                }
+            }
+        } finally {
+            retireLock.readLock().unlock();
+        }
+
+        if (newTopicsSinceFlush.get() >= flushMaxTopics) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${topics.topk.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    // Runs after the consumer loop has stopped and the result writer has flushed (see ConsumerLifecycle)
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            newTopicsSinceFlush.set(0);
+            long now = Instant.now().getEpochSecond();
+
+            // Buckets stop receiving posts shortly after they close; late posts just start a fresh counter
+            Map<String, BucketCounters> retired = new HashMap<>();
+            retireLock.writeLock().lock();
+            try {
+                buckets.entrySet().removeIf(entry -> {
+                    BucketCounters bucket = entry.getValue();
+                    if (now > bucket.start + 2 * bucket.window.getBucketSize().toSeconds()) {
+                        retired.put(entry.getKey(), bucket);
+                        return true;
+                    }
+                    return false;
+                });
+            } finally {
+                retireLock.writeLock().unlock();
+            }
+
+            Map<String, BucketCounters> toFlush = new HashMap<>(buckets);
+            toFlush.putAll(retired);
+
+            int keysWritten = 0;
+            for (Map.Entry<String, BucketCounters> entry : toFlush.entrySet()) {
+                try {
+                    if (send(entry.getKey(), entry.getValue())) {
+                        keysWritten++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Flushing TopK increments for {} failed, retrying on the next flush: {}", entry.getKey(), e.getMessage());
+                    if (retired.containsKey(entry.getKey())) {
+                        restore(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            if (keysWritten > 0) {
+                logger.debug("Flushed TopK increments for {} buckets", keysWritten);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // A late post may have opened a fresh counter for the retired key in the meantime; the retired
+    // bucket's unsent counts are then carried into it instead of being dropped
+    private void restore(String key, BucketCounters retired) {
+        retireLock.readLock().lock();
+        try {
+            buckets.merge(key, retired, (current, old) -> {
+                old.counters.forEach((topic, adder) -> {
+                    long unsent = adder.sum() - old.sent.getOrDefault(topic, 0L);
+                    if (unsent > 0) {
+                        current.counters.computeIfAbsent(topic, t -> new LongAdder()).add(unsent);
+                    }
+                });
+                return current;
+            });
+        } finally {
+            retireLock.readLock().unlock();
+        }
+    }
+
+    private boolean send(String key, BucketCounters bucket) {
+        Map<String, Long> deltas = new HashMap<>();
+        bucket.counters.forEach((topic, adder) -> {
+            long total = adder.sum();
+            long delta = total - bucket.sent.getOrDefault(topic, 0L);
+            if (delta > 0) {
+                deltas.put(topic, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return false;
+        }
+
+        if (!bucket.created) {
+            topKService.create(key, bucket.window.getTtl());
+            bucket.created = true;
+        }
+        topKService.incrBy(key, deltas);
+        // Marked as sent only once Redis accepted them, so a failed flush is retried by the next one
+        deltas.forEach((topic, delta) -> bucket.sent.merge(topic, delta, Long::sum));
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.redis.topicextractorapp;
+
+import com.redis.om.spring.annotations.IndexingOptions;
+import com.redis.om.spring.annotations.VectorIndexed;
+import com.redis.om.spring.annotations.Vectorize;
+import com.redis.om.spring.indexing.DistanceMetric;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+
+@IndexingOptions(indexName = "TopicIdx")
+@RedisHash(value="Topic")
+public class Topic {
+    @Id
+    private String id;
+
+    @Vectorize(destination = "nameEmbedding")
+    private String name;
+
+    @VectorIndexed(distanceMetric = DistanceMetric.COSINE, dimension = 384)
+    private byte[] nameEmbedding;
+
+    public Topic() {
+    }
+
+    public Topic(String name) {
+        this.id = name;
+        this.name = name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public byte[] getNameEmbedding() {
+        return nameEmbedding;
+    }
+
+    public void setNameEmbedding(byte[] nameEmbedding) {
+        this.nameEmbedding = nameEmbedding;
+    }
+}
@@ -0,0 +1,51 @@
+package com.redis.topicextractorapp;
+
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.args.ExpiryOption;
+
+import java.util.*;
+
+// Distinct authors per topic, in the same event-time buckets as the TopK counters. Each counter
+// is a HyperLogLog, so its size stays fixed (at most 12 KB) however many accounts post.
+@Service
+public class TopicAuthorService {
+    public static final String KEY_SPACE = "topic-authors:";
+
+    private final JedisPooled jedisPooled;
+
+    public TopicAuthorService(JedisPooled jedisPooled) {
+        this.jedisPooled = jedisPooled;
+    }
+
+    public void record(List<Map.Entry<StreamEvent, List<String>>> results) {
+        Map<String, Set<String>> authorsByKey = new HashMap<>();
+        Map<String, TrendingWindow> windowByKey = new HashMap<>();
+        for (Map.Entry<StreamEvent, List<String>> result : results) {
+            StreamEvent event = result.getKey();
+            if (event.getDid() == null) {
+                continue;
+            }
+
+            for (TrendingWindow window : TrendingWindow.values()) {
+                String bucketKey = window.key(KEY_SPACE, event.getTimeUs() / 1_000_000);
+                for (String topic : result.getValue()) {
+                    String key = bucketKey + ":" + topic;
+                    windowByKey.put(key, window);
+                    authorsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(event.getDid());
+                }
+            }
+        }
+        if (authorsByKey.isEmpty()) {
+            return;
+        }
+
+        try (var pipeline = jedisPooled.pipelined()) {
+            authorsByKey.forEach((key, authors) -> {
+                pipeline.pfadd(key, authors.toArray(String[]::new));
+                pipeline.expire(key, windowByKey.get(key).getTtl().toSeconds(), ExpiryOption.NX);
+            });
+            pipeline.sync();
+        }
+    }
+}
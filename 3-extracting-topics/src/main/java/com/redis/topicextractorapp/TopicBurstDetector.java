@@ -0,0 +1,123 @@
+package com.redis.topicextractorapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.params.XAddParams;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Streaming z-score over each topic's mentions per minute. The mean and variance are exponentially
+// weighted, so they cost O(1) per update and follow slow drifts in a topic's baseline. The minute
+// being filled is compared against that baseline as mentions arrive, and is folded into it once
+// a later minute starts.
+@Component
+public class TopicBurstDetector {
+    private static final Logger logger = LoggerFactory.getLogger(TopicBurstDetector.class);
+    public static final String BURSTS_STREAM = "topic-bursts";
+    private static final long MINUTE_MS = 60_000;
+
+    private final JedisPooled jedisPooled;
+    private final Map<String, TopicState> states = new ConcurrentHashMap<>();
+
+    @Value("${topics.bursts.alpha:0.05}")
+    private double alpha;
+
+    @Value("${topics.bursts.z-threshold:4.0}")
+    private double zThreshold;
+
+    @Value("${topics.bursts.min-count:10}")
+    private long minCount;
+
+    @Value("${topics.bursts.warmup-minutes:30}")
+    private int warmupMinutes;
+
+    @Value("${topics.bursts.stream-max-length:10000}")
+    private long streamMaxLength;
+
+    private static class TopicState {
+        long minuteMs = -1;
+        long count;
+        double mean;
+        double variance;
+        int observedMinutes;
+        boolean flagged;
+    }
+
+    public TopicBurstDetector(JedisPooled jedisPooled) {
+        this.jedisPooled = jedisPooled;
+    }
+
+    public void observe(String topic, long minuteMs, long count) {
+        TopicState state = states.computeIfAbsent(topic, t -> new TopicState());
+        double zScore;
+        double baseline;
+        long minuteCount;
+        synchronized (state) {
+            if (state.minuteMs < 0) {
+                state.minuteMs = minuteMs;
+            }
+            if (minuteMs < state.minuteMs) {
+                // Late posts are still in the time series, but the baseline has moved on
+                return;
+            }
+            if (minuteMs > state.minuteMs) {
+                advance(state, minuteMs);
+            }
+
+            state.count += count;
+            if (state.flagged || state.observedMinutes < warmupMinutes || state.count < minCount) {
+                return;
+            }
+
+            double stdDev = Math.sqrt(Math.max(state.variance, 1.0));
+            zScore = (state.count - state.mean) / stdDev;
+            if (zScore < zThreshold) {
+                return;
+            }
+            state.flagged = true;
+            minuteCount = state.count;
+            baseline = state.mean;
+        }
+
+        publish(topic, minuteMs, minuteCount, baseline, zScore);
+    }
+
+    private void advance(TopicState state, long minuteMs) {
+        update(state, state.count);
+        // Minutes without any mention count as zeros; past a point they no longer change anything
+        long emptyMinutes = Math.min((minuteMs - state.minuteMs) / MINUTE_MS - 1, (long) (10 / alpha));
+        for (long i = 0; i < emptyMinutes; i++) {
+            update(state, 0);
+        }
+        state.minuteMs = minuteMs;
+        state.count = 0;
+        state.flagged = false;
+    }
+
+    private void update(TopicState state, double value) {
+        double diff = value - state.mean;
+        double increment = alpha * diff;
+        state.mean += increment;
+        state.variance = (1 - alpha) * (state.variance + diff * increment);
+        state.observedMinutes++;
+    }
+
+    private void publish(String topic, long minuteMs, long count, double baseline, double zScore) {
+        jedisPooled.xadd(BURSTS_STREAM,
+                XAddParams.xAddParams().id(StreamEntryID.NEW_ENTRY).maxLen(streamMaxLength).approximateTrimming(),
+                Map.of(
+                        "topic", topic,
+                        "minute", String.valueOf(minuteMs / 1_000),
+                        "count", String.valueOf(count),
+                        "baseline", String.format("%.2f", baseline),
+                        "zScore", String.format("%.2f", zScore)
+                ));
+        logger.info("🔥 Burst on '{}': {} mentions this minute (baseline {}, z={})",
+                topic, count, String.format("%.1f", baseline), String.format("%.1f", zScore));
+    }
+}
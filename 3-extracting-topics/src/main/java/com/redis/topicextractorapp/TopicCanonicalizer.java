@@ -0,0 +1,152 @@
+package com.redis.topicextractorapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import com.redis.om.spring.tuple.Fields;
+import com.redis.om.spring.tuple.Pair;
+import com.redis.om.spring.vectorize.Embedder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+public class TopicCanonicalizer {
+    private static final Logger logger = LoggerFactory.getLogger(TopicCanonicalizer.class);
+    public static final String ALIASES_KEY = "topic-aliases";
+    private static final Set<String> NOT_PLURAL = Set.of(
+            "news", "kubernetes", "windows", "series", "species", "macos", "chaos", "postgres");
+
+    private final JedisPooled jedis;
+    private final Embedder embedder;
+    private final EntityStream entityStream;
+    private final TopicVocabularyService topicVocabularyService;
+    private final Map<String, String> aliasCache = new ConcurrentHashMap<>();
+
+    @Value("${topics.canonical.merge-distance:0.2}")
+    private double mergeDistance;
+
+    public TopicCanonicalizer(JedisPooled jedis, Embedder embedder, EntityStream entityStream,
+                              TopicVocabularyService topicVocabularyService) {
+        this.jedis = jedis;
+        this.embedder = embedder;
+        this.entityStream = entityStream;
+        this.topicVocabularyService = topicVocabularyService;
+    }
+
+    // Aliases are looked up with this normalization by 4-data-analysis-app, which has its own copy
+    // (the apps share no code): change both copies, and both TopicCanonicalizerTests, together
+    public static String normalize(String topic) {
+        String normalized = topic.toLowerCase(Locale.ROOT)
+                .replaceAll("[\"'`]", "")
+                .replaceAll("[\\s_-]+", " ")
+                .trim();
+
+        // "LLMs" and "LLM" should share an alias entry
+        return singular(normalized);
+    }
+
+    // Only the last word is a plural candidate: "large language models" -> "large language model".
+    // Words ending in -ss, -is, -us or -ics are usually singular already ("analysis", "ethics")
+    private static String singular(String normalized) {
+        int lastSpace = normalized.lastIndexOf(' ');
+        String word = normalized.substring(lastSpace + 1);
+        if (word.length() <= 3 || !word.endsWith("s") || NOT_PLURAL.contains(word)
+                || word.endsWith("ss") || word.endsWith("is") || word.endsWith("us") || word.endsWith("ics")) {
+            return normalized;
+        }
+
+        String stem = word.length() > 4 && word.endsWith("ies")
+                ? word.substring(0, word.length() - 3) + "y"
+                : word.substring(0, word.length() - 1);
+        return normalized.substring(0, lastSpace + 1) + stem;
+    }
+
+    public List<String> canonicalize(List<String> topics) {
+        List<String> surfaces = topics.stream()
+                .map(String::trim)
+                .filter(topic -> !topic.isEmpty())
+                .toList();
+
+        Map<String, String> canonicalByAlias = resolveAliases(surfaces);
+
+        return surfaces.stream()
+                .map(surface -> canonicalByAlias.computeIfAbsent(normalize(surface), alias -> merge(surface, alias)))
+                .distinct()
+                .toList();
+    }
+
+    private Map<String, String> resolveAliases(List<String> surfaces) {
+        Map<String, String> canonicalByAlias = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+
+        for (String surface : surfaces) {
+            String alias = normalize(surface);
+            String canonical = aliasCache.get(alias);
+            if (canonical != null) {
+                canonicalByAlias.put(alias, canonical);
+            } else if (!unknown.contains(alias)) {
+                unknown.add(alias);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            List<String> stored = jedis.hmget(ALIASES_KEY, unknown.toArray(new String[0]));
+            for (int i = 0; i < unknown.size(); i++) {
+                if (stored.get(i) != null) {
+                    aliasCache.put(unknown.get(i), stored.get(i));
+                    canonicalByAlias.put(unknown.get(i), stored.get(i));
+                }
+            }
+        }
+
+        return canonicalByAlias;
+    }
+
+    // New surface form: fold it into the closest canonical topic, or make it a canonical topic itself
+    private String merge(String surface, String alias) {
+        byte[] embedding = embedder.getTextEmbeddingsAsBytes(List.of(surface), Topic$.NAME).getFirst();
+        Optional<Pair<Topic, Double>> nearest = nearestTopic(embedding);
+
+        String canonical;
+        if (nearest.isPresent() && nearest.get().getSecond() < mergeDistance) {
+            canonical = nearest.get().getFirst().getId();
+            logger.info("Merged topic \"{}\" into \"{}\" (distance {})", surface, canonical, nearest.get().getSecond());
+        } else {
+            canonical = surface;
+            topicVocabularyService.addTopics(List.of(surface));
+        }
+
+        addAlias(alias, canonical);
+        return canonical;
+    }
+
+    public Optional<Pair<Topic, Double>> nearestTopic(byte[] embedding) {
+        return nearestTopics(embedding, 1).stream().findFirst();
+    }
+
+    public List<Pair<Topic, Double>> nearestTopics(byte[] embedding, int k) {
+        return entityStream.of(Topic.class)
+                .filter(Topic$.NAME_EMBEDDING.knn(k, embedding))
+                .sorted(Topic$._NAME_EMBEDDING_SCORE)
+                .map(Fields.of(Topic$._THIS, Topic$._NAME_EMBEDDING_SCORE))
+                .collect(Collectors.toList());
+    }
+
+    public void addAlias(String alias, String canonical) {
+        jedis.hset(ALIASES_KEY, alias, canonical);
+        aliasCache.put(alias, canonical);
+    }
+
+    public double getMergeDistance() {
+        return mergeDistance;
+    }
+
+    public void clearCache() {
+        aliasCache.clear();
+    }
+}
@@ -0,0 +1,270 @@
+package com.redis.topicextractorapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Centroids are read by every worker for every post and written after each LLM answer, so they sit
+// behind a read-write lock (virtual threads are not pinned by it) and keep a normalized copy of
+// their mean for scoring. Redis writes happen outside the lock.
+@Service
+public class TopicCentroidClassifier {
+    private static final Logger logger = LoggerFactory.getLogger(TopicCentroidClassifier.class);
+    private static final byte[] CENTROIDS_KEY = "topic-centroids".getBytes(StandardCharsets.UTF_8);
+    private static final String COUNTS_KEY = "topic-centroid-counts";
+
+    private final JedisPooled jedis;
+    private final EntityStream entityStream;
+    private final TopicRepository topicRepository;
+    private final Map<String, Centroid> centroids = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${topics.classifier.enabled:true}")
+    private boolean enabled;
+
+    @Value("${topics.classifier.min-similarity:0.75}")
+    private double minSimilarity;
+
+    @Value("${topics.classifier.margin:0.05}")
+    private double margin;
+
+    @Value("${topics.classifier.min-samples:20}")
+    private long minSamples;
+
+    @Value("${topics.classifier.max-samples:1000}")
+    private long maxSamples;
+
+    @Value("${topics.classifier.max-topics:5}")
+    private int maxTopics;
+
+    private static class Centroid {
+        private final float[] mean;
+        private float[] unit;
+        private long count;
+
+        Centroid(float[] mean, long count) {
+            this.mean = mean;
+            this.unit = VectorUtils.normalize(mean);
+            this.count = count;
+        }
+    }
+
+    public TopicCentroidClassifier(JedisPooled jedis, EntityStream entityStream, TopicRepository topicRepository) {
+        this.jedis = jedis;
+        this.entityStream = entityStream;
+        this.topicRepository = topicRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void load() {
+        Map<byte[], byte[]> stored = jedis.hgetAll(CENTROIDS_KEY);
+        Map<String, String> counts = jedis.hgetAll(COUNTS_KEY);
+        Set<String> vocabulary = new HashSet<>();
+        topicRepository.findAll().forEach(topic -> vocabulary.add(topic.getId()));
+
+        // Centroids of topics that left the vocabulary would hand out IDs that no longer exist
+        List<String> orphans = new ArrayList<>();
+        Map<String, Centroid> loaded = new HashMap<>();
+        stored.forEach((topic, mean) -> {
+            String name = new String(topic, StandardCharsets.UTF_8);
+            if (vocabulary.contains(name)) {
+                loaded.put(name, new Centroid(VectorUtils.toFloats(mean), Long.parseLong(counts.getOrDefault(name, "0"))));
+            } else {
+                orphans.add(name);
+            }
+        });
+        if (!orphans.isEmpty()) {
+            delete(orphans);
+            logger.info("Dropped {} centroids of topics no longer in the vocabulary", orphans.size());
+        }
+
+        lock.writeLock().lock();
+        try {
+            centroids.clear();
+            centroids.putAll(loaded);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (loaded.isEmpty()) {
+            bootstrap();
+        }
+        logger.info("Loaded {} topic centroids", loaded.size());
+    }
+
+    // Called by the re-merge job: the survivor's centroid becomes the count-weighted mean of both
+    public void merge(String merged, String survivor) {
+        Centroid from = read(merged);
+        if (from == null) {
+            return;
+        }
+        Centroid into = read(survivor);
+
+        Centroid combined = from;
+        if (into != null && into.mean.length == from.mean.length) {
+            long count = into.count + from.count;
+            float[] mean = new float[into.mean.length];
+            for (int i = 0; i < mean.length; i++) {
+                mean[i] = count == 0 ? 0 : (into.mean[i] * into.count + from.mean[i] * from.count) / count;
+            }
+            combined = new Centroid(mean, count);
+        }
+
+        lock.writeLock().lock();
+        try {
+            centroids.remove(merged);
+            centroids.put(survivor, combined);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        write(Map.of(survivor, combined));
+        delete(List.of(merged));
+    }
+
+    private Centroid read(String topic) {
+        lock.readLock().lock();
+        try {
+            if (centroids.containsKey(topic)) {
+                return copy(centroids.get(topic));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        byte[] mean = jedis.hget(CENTROIDS_KEY, topic.getBytes(StandardCharsets.UTF_8));
+        String count = jedis.hget(COUNTS_KEY, topic);
+        return mean != null ? new Centroid(VectorUtils.toFloats(mean), count != null ? Long.parseLong(count) : 0) : null;
+    }
+
+    // Builds the first centroids from posts that were already tagged by the LLM
+    private void bootstrap() {
+        Set<String> bootstrapped = new HashSet<>();
+        for (Topic topic : topicRepository.findAll()) {
+            List<StreamEvent> tagged = entityStream.of(StreamEvent.class)
+                    .filter(StreamEvent$.TOPICS.eq(List.of(topic.getId())))
+                    .limit(maxSamples)
+                    .collect(Collectors.toList());
+
+            List<float[]> vectors = tagged.stream()
+                    .filter(event -> event.getTextEmbedding() != null)
+                    .map(event -> VectorUtils.normalize(VectorUtils.toFloats(event.getTextEmbedding())))
+                    .toList();
+            if (!vectors.isEmpty()) {
+                update(topic.getId(), vectors);
+                bootstrapped.add(topic.getId());
+            }
+        }
+        logger.info("Bootstrapped {} topic centroids", bootstrapped.size());
+    }
+
+    private void update(String topic, List<float[]> vectors) {
+        Map<String, Centroid> snapshot;
+        lock.writeLock().lock();
+        try {
+            vectors.forEach(vector -> add(topic, vector));
+            snapshot = Map.of(topic, copy(centroids.get(topic)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        write(snapshot);
+    }
+
+    // Returns topics only when the post sits clearly inside known centroids; empty means "ask the LLM"
+    public Optional<List<String>> classify(byte[] embedding) {
+        if (!enabled || embedding == null) {
+            return Optional.empty();
+        }
+
+        float[] vector = VectorUtils.normalize(VectorUtils.toFloats(embedding));
+        Map<String, Double> similarities = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            centroids.forEach((topic, centroid) -> {
+                if (centroid.count >= minSamples) {
+                    similarities.put(topic, VectorUtils.dot(vector, centroid.unit));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        double best = similarities.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        if (best < minSimilarity) {
+            return Optional.empty();
+        }
+
+        return Optional.of(similarities.entrySet().stream()
+                .filter(entry -> entry.getValue() >= Math.max(minSimilarity, best - margin))
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(maxTopics)
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    public void update(byte[] embedding, List<String> topics) {
+        if (embedding == null || topics.isEmpty()) {
+            return;
+        }
+
+        float[] vector = VectorUtils.normalize(VectorUtils.toFloats(embedding));
+        Map<String, Centroid> snapshot = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            topics.forEach(topic -> {
+                add(topic, vector);
+                snapshot.put(topic, copy(centroids.get(topic)));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        write(snapshot);
+    }
+
+    // Caller holds the write lock
+    private void add(String topic, float[] vector) {
+        Centroid centroid = centroids.computeIfAbsent(topic, t -> new Centroid(new float[vector.length], 0));
+
+        // Running mean, capped so that centroids keep following how a topic is discussed
+        long n = Math.min(centroid.count + 1, maxSamples);
+        for (int i = 0; i < vector.length; i++) {
+            centroid.mean[i] += (vector[i] - centroid.mean[i]) / n;
+        }
+        centroid.unit = VectorUtils.normalize(centroid.mean);
+        centroid.count++;
+    }
+
+    private static Centroid copy(Centroid centroid) {
+        return new Centroid(centroid.mean.clone(), centroid.count);
+    }
+
+    private void write(Map<String, Centroid> snapshot) {
+        Map<byte[], byte[]> means = new HashMap<>();
+        Map<String, String> counts = new HashMap<>();
+        snapshot.forEach((topic, centroid) -> {
+            means.put(topic.getBytes(StandardCharsets.UTF_8), VectorUtils.toBytes(centroid.mean));
+            counts.put(topic, String.valueOf(centroid.count));
+        });
+
+        if (!means.isEmpty()) {
+            jedis.hset(CENTROIDS_KEY, means);
+            jedis.hset(COUNTS_KEY, counts);
+        }
+    }
+
+    private void delete(List<String> topics) {
+        jedis.hdel(CENTROIDS_KEY, topics.stream().map(topic -> topic.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new));
+        jedis.hdel(COUNTS_KEY, topics.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,115 @@
+package com.redis.topicextractorapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.args.ExpiryOption;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sparse neighbour lists: for every topic and hour bucket, a sorted set of the topics it appeared
+// with, scored by how many posts they shared. While a bucket is open its lists keep many more
+// candidates than are served, so a neighbour that shows up late in the hour can still overtake
+// early ones; once the bucket has closed each list is trimmed to its strongest neighbours, so a
+// related-topics lookup reads a bounded number of small sets regardless of post volume.
+@Service
+public class TopicCooccurrenceService {
+    private static final Logger logger = LoggerFactory.getLogger(TopicCooccurrenceService.class);
+    public static final String KEY_SPACE = "topic-cooccur:";
+    private static final TrendingWindow WINDOW = TrendingWindow.HOUR;
+
+    private final JedisPooled jedisPooled;
+    // Lists written since their bucket was last trimmed, by bucket start
+    private final Map<Long, Set<String>> untrimmed = new ConcurrentHashMap<>();
+
+    @Value("${topics.cooccurrence.max-neighbours:50}")
+    private int maxNeighbours;
+
+    @Value("${topics.cooccurrence.candidate-slack:10}")
+    private int candidateSlack;
+
+    public TopicCooccurrenceService(JedisPooled jedisPooled) {
+        this.jedisPooled = jedisPooled;
+    }
+
+    public void record(List<Map.Entry<StreamEvent, List<String>>> results) {
+        Map<String, Map<String, Long>> pairCounts = new HashMap<>();
+        Map<Long, Set<String>> touched = new HashMap<>();
+        for (Map.Entry<StreamEvent, List<String>> result : results) {
+            List<String> topics = result.getValue().stream().distinct().toList();
+            if (topics.size() < 2) {
+                continue;
+            }
+
+            long eventSeconds = result.getKey().getTimeUs() / 1_000_000;
+            String bucketKey = WINDOW.key(KEY_SPACE, eventSeconds);
+            Set<String> bucketLists = touched.computeIfAbsent(WINDOW.bucketStart(eventSeconds), b -> new HashSet<>());
+            for (String topic : topics) {
+                String key = bucketKey + ":" + topic;
+                bucketLists.add(key);
+                Map<String, Long> neighbours = pairCounts.computeIfAbsent(key, k -> new HashMap<>());
+                topics.stream()
+                        .filter(other -> !other.equals(topic))
+                        .forEach(other -> neighbours.merge(other, 1L, Long::sum));
+            }
+        }
+        if (pairCounts.isEmpty()) {
+            return;
+        }
+
+        // Only a safety cap while the bucket is open; the real trim happens once it has closed
+        long maxCandidates = (long) maxNeighbours * candidateSlack;
+        try (var pipeline = jedisPooled.pipelined()) {
+            pairCounts.forEach((key, neighbours) -> {
+                neighbours.forEach((other, count) -> pipeline.zincrby(key, count, other));
+                pipeline.zremrangeByRank(key, 0, -(maxCandidates + 1));
+                pipeline.expire(key, WINDOW.getTtl().toSeconds(), ExpiryOption.NX);
+            });
+            pipeline.sync();
+        }
+        // Registered only once written, so a trim never runs between the registration and the write
+        touched.forEach(this::registerUntrimmed);
+    }
+
+    private void registerUntrimmed(long bucketStart, Set<String> keys) {
+        while (true) {
+            Set<String> pending = untrimmed.computeIfAbsent(bucketStart, b -> ConcurrentHashMap.newKeySet());
+            pending.addAll(keys);
+            // The trim job may have taken this set before the keys went in: register them again
+            // (at worst a list is trimmed twice)
+            if (untrimmed.get(bucketStart) == pending) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${topics.cooccurrence.trim-interval-ms:60000}")
+    public void trimClosedBuckets() {
+        long now = Instant.now().getEpochSecond();
+        long bucketSeconds = WINDOW.getBucketSize().toSeconds();
+        int trimmed = 0;
+        for (Long bucketStart : List.copyOf(untrimmed.keySet())) {
+            if (now < bucketStart + bucketSeconds) {
+                continue;
+            }
+            // Late posts for this bucket register a fresh set and get trimmed on a later run
+            Set<String> keys = untrimmed.remove(bucketStart);
+            if (keys == null || keys.isEmpty()) {
+                continue;
+            }
+            try (var pipeline = jedisPooled.pipelined()) {
+                keys.forEach(key -> pipeline.zremrangeByRank(key, 0, -(maxNeighbours + 1)));
+                pipeline.sync();
+            }
+            trimmed += keys.size();
+        }
+        if (trimmed > 0) {
+            logger.debug("Trimmed {} co-occurrence lists to {} neighbours", trimmed, maxNeighbours);
+        }
+    }
+}
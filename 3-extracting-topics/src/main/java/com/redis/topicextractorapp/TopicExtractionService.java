@@ -1,40 +1,252 @@
 package com.redis.topicextractorapp;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.ollama.OllamaChatModel;
+import com.redis.om.spring.vectorize.Embedder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import redis.clients.jedis.JedisPooled;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class TopicExtractionService {
     private static final Logger logger = LoggerFactory.getLogger(TopicExtractionService.class);
     private final JedisPooled jedis;
-    private final OllamaChatModel chatModel;
+    private final ChatModel chatModel;
+    private final LlmThrottle llmThrottle;
+    private final ExtractionMetrics metrics;
+    private final TopicVocabularyService topicVocabularyService;
+    private final TopicCanonicalizer topicCanonicalizer;
+    private final NearDuplicateDetector nearDuplicateDetector;
+    private final TopicCentroidClassifier topicCentroidClassifier;
+    private final Embedder embedder;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public TopicExtractionService(JedisPooled jedisPooled, OllamaChatModel chatModel, TopKService topKService) {
+    @Value("${topics.extraction.batch-size:10}")
+    private int batchSize;
+
+    @Value("${topics.classifier.shadow-rate:0.05}")
+    private double shadowRate;
+
+    public TopicExtractionService(JedisPooled jedisPooled, ChatModel chatModel, LlmThrottle llmThrottle,
+                                  TopKService topKService, ExtractionMetrics metrics,
+                                  TopicVocabularyService topicVocabularyService, TopicCanonicalizer topicCanonicalizer,
+                                  NearDuplicateDetector nearDuplicateDetector, TopicCentroidClassifier topicCentroidClassifier,
+                                  Embedder embedder) {
         this.jedis = jedisPooled;
         this.chatModel = chatModel;
+        this.llmThrottle = llmThrottle;
+        this.metrics = metrics;
+        this.topicVocabularyService = topicVocabularyService;
+        this.topicCanonicalizer = topicCanonicalizer;
+        this.nearDuplicateDetector = nearDuplicateDetector;
+        this.topicCentroidClassifier = topicCentroidClassifier;
+        this.embedder = embedder;
     }
 
-    private List<String> extractTopics(String post) {
-        // Implement the topic extraction logic using the chat model
-        return null;
+    public int getBatchSize() {
+        return Math.max(1, batchSize);
+    }
+
+    // Only the nearest existing topics are sent, so the prompt stays flat as the vocabulary grows.
+    // The system messages never change, which keeps them cacheable as a prompt prefix.
+    private List<String> extractTopics(StreamEvent event) {
+        List<String> existingTopics = topicVocabularyService.nearestTopics(List.of(event.getTextEmbedding()));
+        List<Message> messages = List.of(
+                new SystemMessage(PROMPT),
+                new UserMessage("Existing topics: " + existingTopics),
+                new UserMessage("Post: " + event.getText())
+        );
+
+        Prompt prompt = new Prompt(messages);
+        llmThrottle.acquire();
+        ChatResponse response = chatModel.call(prompt);
+        metrics.recordLlmCall(response);
+
+        String topics = response.getResult().getOutput().getText() != null
+                ? response.getResult().getOutput().getText()
+                : "";
+
+        return Arrays.stream(topics
+                        .replace("\"", "")
+                        .split(","))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .toList();
+    }
+
+    private Map<String, List<String>> extractTopicsBatch(List<StreamEvent> events) throws JsonProcessingException {
+        List<String> existingTopics = topicVocabularyService.nearestTopics(
+                events.stream().map(StreamEvent::getTextEmbedding).toList());
+
+        List<Map<String, String>> posts = events.stream()
+                .map(event -> Map.of("id", event.getRedisStreamEntryId(), "text", event.getText()))
+                .toList();
+
+        List<Message> messages = List.of(
+                new SystemMessage(PROMPT),
+                new SystemMessage(BATCH_PROMPT),
+                new UserMessage("Existing topics: " + existingTopics),
+                new UserMessage("Posts: " + objectMapper.writeValueAsString(posts))
+        );
+
+        llmThrottle.acquire();
+        ChatResponse response = chatModel.call(new Prompt(messages));
+        metrics.recordLlmCall(response);
+
+        String text = response.getResult().getOutput().getText();
+        return parseBatchResponse(text, events);
+    }
+
+    private Map<String, List<String>> parseBatchResponse(String text, List<StreamEvent> events) throws JsonProcessingException {
+        if (text == null || text.indexOf('{') < 0 || text.lastIndexOf('}') < text.indexOf('{')) {
+            throw new IllegalStateException("No JSON object in batch response");
+        }
+
+        // Models like to wrap JSON in code fences or add a sentence around it
+        JsonNode root = objectMapper.readTree(text.substring(text.indexOf('{'), text.lastIndexOf('}') + 1));
+        JsonNode results = root.get("results");
+        if (results == null || !results.isArray()) {
+            throw new IllegalStateException("Batch response has no results array");
+        }
+
+        Set<String> expectedIds = new HashSet<>();
+        events.forEach(event -> expectedIds.add(event.getRedisStreamEntryId()));
+
+        Map<String, List<String>> topicsById = new HashMap<>();
+        for (JsonNode result : results) {
+            JsonNode id = result.get("id");
+            JsonNode topics = result.get("topics");
+            if (id == null || !expectedIds.contains(id.asText()) || topics == null || !topics.isArray()) {
+                throw new IllegalStateException("Malformed batch result: " + result);
+            }
+
+            List<String> parsed = new ArrayList<>();
+            topics.forEach(topic -> {
+                String value = topic.asText().replace("\"", "").trim();
+                if (!value.isEmpty()) {
+                    parsed.add(value);
+                }
+            });
+            topicsById.put(id.asText(), parsed);
+        }
+
+        return topicsById;
     }
 
     public List<String> processTopics(StreamEvent event) {
-        // Implement the logic to process topics from the event
-        return null;
+        return processTopics(List.of(event)).getOrDefault(event.getRedisStreamEntryId(), List.of());
     }
 
+    public Map<String, List<String>> processTopics(List<StreamEvent> events) {
+        embed(events);
+
+        Map<String, List<String>> reusedById = new HashMap<>();
+        Map<String, List<String>> shadowedById = new HashMap<>();
+        List<StreamEvent> toExtract = new ArrayList<>();
+
+        for (StreamEvent event : events) {
+            // Near-copies of recently processed posts reuse their topics without an LLM call
+            Optional<List<String>> reused = nearDuplicateDetector.findTopics(event.getText());
+            metrics.recordNearDuplicateLookup(reused.isPresent());
+            if (reused.isPresent()) {
+                reusedById.put(event.getRedisStreamEntryId(), reused.get());
+                continue;
+            }
+
+            // Posts that sit clearly inside known topic centroids skip the LLM as well,
+            // except for a small sample that is still sent to measure agreement
+            Optional<List<String>> classified = topicCentroidClassifier.classify(event.getTextEmbedding());
+            if (classified.isPresent() && ThreadLocalRandom.current().nextDouble() >= shadowRate) {
+                metrics.recordClassifierHit();
+                reusedById.put(event.getRedisStreamEntryId(), classified.get());
+            } else {
+                classified.ifPresent(topics -> shadowedById.put(event.getRedisStreamEntryId(), topics));
+                toExtract.add(event);
+            }
+        }
+
+        Map<String, List<String>> topicsById = extractTopics(toExtract);
+        toExtract.forEach(event -> {
+            List<String> topics = topicsById.getOrDefault(event.getRedisStreamEntryId(), List.of());
+            nearDuplicateDetector.record(event.getText(), topics);
+            topicCentroidClassifier.update(event.getTextEmbedding(), topics);
+
+            List<String> predicted = shadowedById.get(event.getRedisStreamEntryId());
+            if (predicted != null) {
+                metrics.recordClassifierAgreement(topics.contains(predicted.getFirst()));
+            }
+        });
+
+        metrics.recordPosts(events.size());
+        topicsById.putAll(reusedById);
+        return topicsById;
+    }
+
+    private void embed(List<StreamEvent> events) {
+        List<StreamEvent> missing = events.stream()
+                .filter(event -> event.getTextEmbedding() == null)
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        List<byte[]> embeddings = embedder.getTextEmbeddingsAsBytes(
+                missing.stream().map(StreamEvent::getText).toList(), StreamEvent$.TEXT_TO_EMBED);
+        for (int i = 0; i < missing.size(); i++) {
+            missing.get(i).setTextEmbedding(embeddings.get(i));
+        }
+    }
+
+    private Map<String, List<String>> extractTopics(List<StreamEvent> events) {
+        Map<String, List<String>> topicsById = new HashMap<>();
+
+        for (int start = 0; start < events.size(); start += getBatchSize()) {
+            List<StreamEvent> batch = events.subList(start, Math.min(events.size(), start + getBatchSize()));
+
+            if (batch.size() > 1) {
+                try {
+                    topicsById.putAll(extractTopicsBatch(batch));
+                } catch (Exception e) {
+                    logger.warn("Batched topic extraction failed, falling back to per-post calls: {}", e.getMessage());
+                    metrics.recordBatchFallback();
+                }
+            }
+
+            // Posts the batch did not answer for (or single-post batches) go through the per-post prompt
+            for (StreamEvent event : batch) {
+                if (!topicsById.containsKey(event.getRedisStreamEntryId())) {
+                    topicsById.put(event.getRedisStreamEntryId(), extractTopics(event));
+                }
+            }
+        }
+
+        topicsById.replaceAll((entryId, topics) -> topicCanonicalizer.canonicalize(topics));
+        return topicsById;
+    }
+
+    private static final String BATCH_PROMPT = """
+        You will receive several posts at once as a JSON array of objects with an "id" and a "text".
+        Classify every post independently, following the rules above.
+        
+        Instead of comma separated values, respond ONLY with a JSON object in this exact shape, with one result per post id:
+        {"results": [{"id": "<post id>", "topics": ["topic1", "topic2"]}]}
+        
+        Use an empty "topics" array for posts that are not related to AI. Do not add any text outside the JSON object.
+        """;
+
     private static final String PROMPT = """
         You are a topic classifier specialized in artificial intelligence. Given a post, extract only AI-related topics—both explicitly mentioned and reasonably implied.
         
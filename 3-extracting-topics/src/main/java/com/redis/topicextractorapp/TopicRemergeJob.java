@@ -0,0 +1,104 @@
+package com.redis.topicextractorapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import com.redis.om.spring.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPooled;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Component
+public class TopicRemergeJob {
+    private static final Logger logger = LoggerFactory.getLogger(TopicRemergeJob.class);
+    private final JedisPooled jedis;
+    private final EntityStream entityStream;
+    private final TopicRepository topicRepository;
+    private final StreamEventRepository streamEventRepository;
+    private final TopicCanonicalizer topicCanonicalizer;
+    private final TopicCentroidClassifier topicCentroidClassifier;
+
+    @Value("${topics.canonical.remerge-on-startup:false}")
+    private boolean remergeOnStartup;
+
+    public TopicRemergeJob(JedisPooled jedis, EntityStream entityStream, TopicRepository topicRepository,
+                           StreamEventRepository streamEventRepository, TopicCanonicalizer topicCanonicalizer,
+                           TopicCentroidClassifier topicCentroidClassifier) {
+        this.jedis = jedis;
+        this.entityStream = entityStream;
+        this.topicRepository = topicRepository;
+        this.streamEventRepository = streamEventRepository;
+        this.topicCanonicalizer = topicCanonicalizer;
+        this.topicCentroidClassifier = topicCentroidClassifier;
+    }
+
+    public void runIfEnabled() {
+        if (remergeOnStartup) {
+            remerge();
+        }
+    }
+
+    public void remerge() {
+        Map<String, String> aliases = jedis.hgetAll(TopicCanonicalizer.ALIASES_KEY);
+        Map<String, Long> aliasCounts = aliases.values().stream()
+                .collect(Collectors.groupingBy(canonical -> canonical, Collectors.counting()));
+
+        // Topics with the most aliases are the best established, so they survive a merge
+        List<Topic> topics = new ArrayList<>();
+        topicRepository.findAll().forEach(topics::add);
+        topics.sort(Comparator
+                .comparing((Topic topic) -> aliasCounts.getOrDefault(topic.getId(), 0L)).reversed()
+                .thenComparing(topic -> topic.getId().length()));
+
+        Set<String> assigned = new HashSet<>();
+        Map<String, String> survivorByMerged = new HashMap<>();
+
+        for (Topic topic : topics) {
+            if (!assigned.add(topic.getId()) || topic.getNameEmbedding() == null) {
+                continue;
+            }
+
+            for (Pair<Topic, Double> neighbour : topicCanonicalizer.nearestTopics(topic.getNameEmbedding(), 10)) {
+                String neighbourId = neighbour.getFirst().getId();
+                if (neighbour.getSecond() < topicCanonicalizer.getMergeDistance() && assigned.add(neighbourId)) {
+                    survivorByMerged.put(neighbourId, topic.getId());
+                }
+            }
+        }
+
+        survivorByMerged.forEach((merged, survivor) -> {
+            aliases.forEach((alias, canonical) -> {
+                if (canonical.equals(merged)) {
+                    jedis.hset(TopicCanonicalizer.ALIASES_KEY, alias, survivor);
+                }
+            });
+            jedis.hset(TopicCanonicalizer.ALIASES_KEY, TopicCanonicalizer.normalize(merged), survivor);
+
+            retagPosts(merged, survivor);
+            topicCentroidClassifier.merge(merged, survivor);
+            topicRepository.deleteById(merged);
+            logger.info("Re-merged topic \"{}\" into \"{}\"", merged, survivor);
+        });
+
+        topicCanonicalizer.clearCache();
+        logger.info("Topic re-merge finished: {} topics, {} merged", topics.size(), survivorByMerged.size());
+    }
+
+    private void retagPosts(String merged, String survivor) {
+        List<StreamEvent> events = entityStream.of(StreamEvent.class)
+                .filter(StreamEvent$.TOPICS.eq(List.of(merged)))
+                .collect(Collectors.toList());
+
+        for (StreamEvent event : events) {
+            List<String> topics = event.getTopics().stream()
+                    .map(topic -> topic.equals(merged) ? survivor : topic)
+                    .distinct()
+                    .toList();
+            event.setTopics(topics);
+            streamEventRepository.updateField(event, StreamEvent$.TOPICS, topics);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.redis.topicextractorapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TopicResultWriter {
+    private static final Logger logger = LoggerFactory.getLogger(TopicResultWriter.class);
+
+    private final String streamName;
+    private final String consumerGroup;
+    private final int flushSize;
+    private final long maxDelayMs;
+    private final StreamEventRepository streamEventRepository;
+    private final RedisStreamService redisStreamService;
+    private final TopKAggregator topKAggregator;
+    private final TrendingScoreService trendingScoreService;
+    private final TopicTimeSeriesService topicTimeSeriesService;
+    private final TopicCooccurrenceService topicCooccurrenceService;
+    private final TopicAuthorService topicAuthorService;
+
+    private List<Map.Entry<StreamEvent, List<String>>> pending = new ArrayList<>();
+    private long oldestPendingMs;
+
+    public TopicResultWriter(String streamName, String consumerGroup, int flushSize, long maxDelayMs,
+                             StreamEventRepository streamEventRepository,
+                             RedisStreamService redisStreamService,
+                             TopKAggregator topKAggregator,
+                             TrendingScoreService trendingScoreService,
+                             TopicTimeSeriesService topicTimeSeriesService,
+                             TopicCooccurrenceService topicCooccurrenceService,
+                             TopicAuthorService topicAuthorService) {
+        this.streamName = streamName;
+        this.consumerGroup = consumerGroup;
+        this.flushSize = flushSize;
+        this.maxDelayMs = maxDelayMs;
+        this.streamEventRepository = streamEventRepository;
+        this.redisStreamService = redisStreamService;
+        this.topKAggregator = topKAggregator;
+        this.trendingScoreService = trendingScoreService;
+        this.topicTimeSeriesService = topicTimeSeriesService;
+        this.topicCooccurrenceService = topicCooccurrenceService;
+        this.topicAuthorService = topicAuthorService;
+    }
+
+    public void add(StreamEvent event, List<String> topics) {
+        boolean full;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                oldestPendingMs = System.currentTimeMillis();
+            }
+            pending.add(Map.entry(event, topics));
+            full = pending.size() >= flushSize;
+        }
+
+        if (full) {
+            flush();
+        }
+    }
+
+    public void flushIfDue() {
+        boolean due;
+        synchronized (this) {
+            due = !pending.isEmpty() && System.currentTimeMillis() - oldestPendingMs >= maxDelayMs;
+        }
+
+        if (due) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        List<Map.Entry<StreamEvent, List<String>>> results;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            results = pending;
+            pending = new ArrayList<>();
+        }
+
+        try {
+            write(results);
+        } catch (RuntimeException e) {
+            // Nothing was acknowledged, so the entries stay pending and are claimed again later
+            logger.error("Storing topics failed for {} events, leaving them pending: {}", results.size(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private void write(List<Map.Entry<StreamEvent, List<String>>> results) {
+        long storedAt = System.currentTimeMillis();
+        for (Map.Entry<StreamEvent, List<String>> result : results) {
+            StreamEvent event = result.getKey();
+            List<String> topics = result.getValue();
+            if (event.getTextEmbedding() != null) {
+                streamEventRepository.updateField(event, StreamEvent$.TEXT_EMBEDDING, event.getTextEmbedding());
+            }
+            if (topics.isEmpty()) {
+                continue;
+            }
+
+            topKAggregator.add(event.getTimeUs() / 1_000_000, topics);
+            event.setTopics(topics);
+            streamEventRepository.updateField(event, StreamEvent$.TOPICS, topics);
+            event.setTopicsStoredAt(storedAt);
+            streamEventRepository.updateField(event, StreamEvent$.TOPICS_STORED_AT, storedAt);
+        }
+
+        trendingScoreService.record(results);
+        topicTimeSeriesService.record(results);
+        topicCooccurrenceService.record(results);
+        topicAuthorService.record(results);
+
+        // Acknowledge the messages only once their topics are stored
+        redisStreamService.acknowledgeMessages(streamName, consumerGroup,
+                results.stream().map(result -> result.getKey().getRedisStreamEntryId()).toList());
+        logger.info("Stored topics for {} events", results.size());
+    }
+}
@@ -0,0 +1,140 @@
+package com.redis.topicextractorapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.timeseries.AggregationType;
+import redis.clients.jedis.timeseries.DuplicatePolicy;
+import redis.clients.jedis.timeseries.TSAddParams;
+import redis.clients.jedis.timeseries.TSCreateParams;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One series per canonical topic holding mentions per minute of event time. Samples for the
+// same minute are summed by the server, and compaction rules keep hourly and daily totals
+// for much longer than the minute samples. Every sample carries the retention and the SUM policy,
+// so a series that was deleted and re-created by TS.ADD still sums; the compaction series and
+// rules are re-ensured for each topic every verify-interval rather than once per process.
+@Service
+public class TopicTimeSeriesService {
+    private static final Logger logger = LoggerFactory.getLogger(TopicTimeSeriesService.class);
+    public static final String KEY_SPACE = "topic-ts:";
+    private static final long MINUTE_MS = Duration.ofMinutes(1).toMillis();
+
+    private final JedisPooled jedisPooled;
+    private final TopicBurstDetector topicBurstDetector;
+    // Topic -> when its series and compaction rules were last ensured (epoch ms)
+    private final Map<String, Long> ensuredAt = new ConcurrentHashMap<>();
+
+    @Value("${topics.timeseries.minute-retention:2d}")
+    private Duration minuteRetention;
+
+    @Value("${topics.timeseries.hour-retention:30d}")
+    private Duration hourRetention;
+
+    @Value("${topics.timeseries.day-retention:365d}")
+    private Duration dayRetention;
+
+    @Value("${topics.timeseries.verify-interval:10m}")
+    private Duration verifyInterval;
+
+    public TopicTimeSeriesService(JedisPooled jedisPooled, TopicBurstDetector topicBurstDetector) {
+        this.jedisPooled = jedisPooled;
+        this.topicBurstDetector = topicBurstDetector;
+    }
+
+    public void record(List<Map.Entry<StreamEvent, List<String>>> results) {
+        // Minutes are kept sorted: the burst detector drops a minute older than the last one it saw
+        Map<String, TreeMap<Long, Long>> countsByTopic = new HashMap<>();
+        for (Map.Entry<StreamEvent, List<String>> result : results) {
+            long minuteMs = Math.floorDiv(result.getKey().getTimeUs() / 1_000, MINUTE_MS) * MINUTE_MS;
+            result.getValue().forEach(topic -> countsByTopic
+                    .computeIfAbsent(topic, t -> new TreeMap<>())
+                    .merge(minuteMs, 1L, Long::sum));
+        }
+
+        long nowMs = System.currentTimeMillis();
+        countsByTopic.keySet().stream()
+                .filter(topic -> nowMs - ensuredAt.getOrDefault(topic, 0L) >= verifyInterval.toMillis())
+                .forEach(topic -> {
+                    ensureSeries(topic);
+                    ensuredAt.put(topic, nowMs);
+                });
+        // Topics not mentioned for a while are ensured again when they come back anyway
+        ensuredAt.values().removeIf(at -> nowMs - at > 6 * verifyInterval.toMillis());
+
+        List<String> keys = new ArrayList<>();
+        List<Response<Long>> responses = new ArrayList<>();
+        try (var pipeline = jedisPooled.pipelined()) {
+            countsByTopic.forEach((topic, counts) -> counts.forEach((minuteMs, count) -> {
+                keys.add(KEY_SPACE + topic);
+                responses.add(pipeline.tsAdd(KEY_SPACE + topic, minuteMs, count, TSAddParams.addParams()
+                        .retention(minuteRetention.toMillis())
+                        .onDuplicate(DuplicatePolicy.SUM)
+                        .labels(labels(topic, "1m"))));
+            }));
+            pipeline.sync();
+        }
+
+        // A sample older than the retention window is rejected; the rest of the pipeline still applies
+        int failed = 0;
+        for (int i = 0; i < responses.size(); i++) {
+            try {
+                responses.get(i).get();
+            } catch (JedisDataException e) {
+                failed++;
+                logger.debug("TS.ADD to {} failed: {}", keys.get(i), e.getMessage());
+            }
+        }
+        if (failed > 0) {
+            logger.warn("{} of {} time series samples were rejected", failed, responses.size());
+        }
+
+        countsByTopic.forEach((topic, counts) -> counts.forEach((minuteMs, count) ->
+                topicBurstDetector.observe(topic, minuteMs, count)));
+    }
+
+    // Idempotent: existing series and rules are left alone, missing ones (after a delete or a flush) are recreated
+    private void ensureSeries(String topic) {
+        String key = KEY_SPACE + topic;
+        create(key, topic, "1m", minuteRetention);
+        create(key + ":1h", topic, "1h", hourRetention);
+        create(key + ":1d", topic, "1d", dayRetention);
+        // Compactions cannot be chained, so both rules read from the minute series
+        createRule(key, key + ":1h", Duration.ofHours(1));
+        createRule(key, key + ":1d", Duration.ofDays(1));
+    }
+
+    private void create(String key, String topic, String resolution, Duration retention) {
+        try {
+            jedisPooled.tsCreate(key, TSCreateParams.createParams()
+                    .retention(retention.toMillis())
+                    .duplicatePolicy(DuplicatePolicy.SUM)
+                    .labels(labels(topic, resolution)));
+        } catch (JedisDataException e) {
+            logger.debug("Time series {} already exists", key);
+        }
+    }
+
+    private static Map<String, String> labels(String topic, String resolution) {
+        return Map.of("type", "topic-mentions", "topic", topic, "resolution", resolution);
+    }
+
+    private void createRule(String sourceKey, String destKey, Duration bucket) {
+        try {
+            jedisPooled.tsCreateRule(sourceKey, destKey, AggregationType.SUM, bucket.toMillis());
+        } catch (JedisDataException e) {
+            logger.debug("Compaction rule {} -> {} already exists", sourceKey, destKey);
+        }
+    }
+}
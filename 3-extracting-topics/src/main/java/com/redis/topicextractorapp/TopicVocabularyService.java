@@ -0,0 +1,84 @@
+package com.redis.topicextractorapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import com.redis.om.spring.tuple.Fields;
+import com.redis.om.spring.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+public class TopicVocabularyService {
+    private static final Logger logger = LoggerFactory.getLogger(TopicVocabularyService.class);
+    private final JedisPooled jedis;
+    private final EntityStream entityStream;
+    private final TopicRepository repository;
+    private final Set<String> knownTopics = ConcurrentHashMap.newKeySet();
+
+    @Value("${topics.vocabulary.k:20}")
+    private int k;
+
+    public TopicVocabularyService(JedisPooled jedis, EntityStream entityStream, TopicRepository repository) {
+        this.jedis = jedis;
+        this.entityStream = entityStream;
+        this.repository = repository;
+    }
+
+    // Topics used to live in the "topics" set; index them once so existing vocabularies keep working
+    public void migrateLegacyTopics() {
+        if (repository.count() > 0) {
+            logger.info("Topic vocabulary already indexed, skipping.");
+            return;
+        }
+
+        Set<String> legacyTopics = jedis.smembers("topics");
+        addTopics(legacyTopics);
+        logger.info("Indexed {} topics from the legacy topics set", legacyTopics.size());
+    }
+
+    public void addTopics(Collection<String> topics) {
+        List<Topic> newTopics = topics.stream()
+                .distinct()
+                .filter(topic -> !knownTopics.contains(topic))
+                .filter(topic -> {
+                    if (repository.existsById(topic)) {
+                        knownTopics.add(topic);
+                        return false;
+                    }
+                    return true;
+                })
+                .map(Topic::new)
+                .toList();
+
+        if (!newTopics.isEmpty()) {
+            repository.saveAll(newTopics);
+            newTopics.forEach(topic -> knownTopics.add(topic.getId()));
+        }
+    }
+
+    // Post embeddings come from the same model as topic names, so they can be searched directly
+    public List<String> nearestTopics(List<byte[]> embeddings) {
+        return embeddings.stream()
+                .flatMap(embedding -> vectorSimilaritySearch(embedding).stream())
+                .distinct()
+                .toList();
+    }
+
+    private List<String> vectorSimilaritySearch(byte[] embedding) {
+        List<Pair<Topic, Double>> scores = entityStream.of(Topic.class)
+                .filter(Topic$.NAME_EMBEDDING.knn(k, embedding))
+                .sorted(Topic$._NAME_EMBEDDING_SCORE)
+                .map(Fields.of(Topic$._THIS, Topic$._NAME_EMBEDDING_SCORE))
+                .collect(Collectors.toList());
+
+        return scores.stream()
+                .map(score -> score.getFirst().getName())
+                .toList();
+    }
+}
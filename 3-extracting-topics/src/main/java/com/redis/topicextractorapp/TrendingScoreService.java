@@ -0,0 +1,115 @@
+package com.redis.topicextractorapp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class TrendingScoreService {
+    public static final String SHORT_KEY = "topics-decay:short";
+    public static final String LONG_KEY = "topics-decay:long";
+    public static final String LANDMARKS_KEY = "topics-decay:landmarks";
+
+    // Forward decay: a mention at time t adds 2^((t - landmark) / halfLife), so an update is a
+    // single ZINCRBY. Readers divide by 2^((now - landmark) / halfLife) to get the decayed count.
+    // When the factor grows too large, the set is rescaled in place and the landmark moved forward.
+    private static final String DECAY_SCRIPT = """
+            local halfLife = tonumber(ARGV[1])
+            local t = tonumber(ARGV[2])
+            local landmark = tonumber(redis.call('HGET', KEYS[2], KEYS[1]))
+            if not landmark then
+              landmark = t
+              redis.call('HSET', KEYS[2], KEYS[1], landmark)
+            end
+            local periods = math.floor((t - landmark) / halfLife)
+            if periods > 64 then
+              redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', 2 ^ (-periods))
+              redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', 0.01)
+              landmark = landmark + periods * halfLife
+              redis.call('HSET', KEYS[2], KEYS[1], landmark)
+            end
+            local weight = 2 ^ ((t - landmark) / halfLife)
+            for i = 3, #ARGV, 2 do
+              redis.call('ZINCRBY', KEYS[1], tonumber(ARGV[i + 1]) * weight, ARGV[i])
+            end
+            return 1
+            """;
+
+    private record Call(List<String> keys, List<String> args) {}
+
+    private final JedisPooled jedisPooled;
+    private volatile String decayScriptSha;
+
+    @Value("${trending.decay.short-half-life:1h}")
+    private Duration shortHalfLife;
+
+    @Value("${trending.decay.long-half-life:24h}")
+    private Duration longHalfLife;
+
+    public TrendingScoreService(JedisPooled jedisPooled) {
+        this.jedisPooled = jedisPooled;
+    }
+
+    public void record(List<Map.Entry<StreamEvent, List<String>>> results) {
+        List<Call> calls = new ArrayList<>();
+        for (Map.Entry<StreamEvent, List<String>> result : results) {
+            if (result.getValue().isEmpty()) {
+                continue;
+            }
+
+            long eventSeconds = result.getKey().getTimeUs() / 1_000_000;
+            calls.add(new Call(List.of(SHORT_KEY, LANDMARKS_KEY), args(shortHalfLife, eventSeconds, result.getValue())));
+            calls.add(new Call(List.of(LONG_KEY, LANDMARKS_KEY), args(longHalfLife, eventSeconds, result.getValue())));
+        }
+
+        if (calls.isEmpty()) {
+            return;
+        }
+        if (decayScriptSha == null) {
+            decayScriptSha = jedisPooled.scriptLoad(DECAY_SCRIPT);
+        }
+        List<Call> unknownScript = evalsha(calls);
+        // The script cache is empty after a restart or failover of Redis: load it again and retry
+        // the calls that were rejected (they did not run)
+        if (!unknownScript.isEmpty()) {
+            decayScriptSha = jedisPooled.scriptLoad(DECAY_SCRIPT);
+            evalsha(unknownScript).forEach(call -> jedisPooled.eval(DECAY_SCRIPT, call.keys(), call.args()));
+        }
+    }
+
+    private List<Call> evalsha(List<Call> calls) {
+        List<Response<Object>> responses = new ArrayList<>();
+        try (var pipeline = jedisPooled.pipelined()) {
+            calls.forEach(call -> responses.add(pipeline.evalsha(decayScriptSha, call.keys(), call.args())));
+            pipeline.sync();
+        }
+
+        List<Call> unknownScript = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            try {
+                responses.get(i).get();
+            } catch (JedisNoScriptException e) {
+                unknownScript.add(calls.get(i));
+            }
+        }
+        return unknownScript;
+    }
+
+    private List<String> args(Duration halfLife, long eventSeconds, List<String> topics) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(halfLife.toSeconds()));
+        args.add(String.valueOf(eventSeconds));
+        topics.forEach(topic -> {
+            args.add(topic);
+            args.add("1");
+        });
+        return args;
+    }
+}
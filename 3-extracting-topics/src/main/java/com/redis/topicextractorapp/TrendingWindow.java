@@ -0,0 +1,36 @@
+package com.redis.topicextractorapp;
+
+import java.time.Duration;
+
+// Trending counters are bucketed by event time at two resolutions: minute buckets answer
+// the short windows, hour buckets answer the long ones. Old buckets expire on their own.
+public enum TrendingWindow {
+    MINUTE("1m", Duration.ofMinutes(1), Duration.ofHours(3)),
+    HOUR("1h", Duration.ofHours(1), Duration.ofHours(26));
+
+    private final String label;
+    private final Duration bucketSize;
+    private final Duration ttl;
+
+    TrendingWindow(String label, Duration bucketSize, Duration ttl) {
+        this.label = label;
+        this.bucketSize = bucketSize;
+        this.ttl = ttl;
+    }
+
+    public long bucketStart(long epochSeconds) {
+        return epochSeconds - Math.floorMod(epochSeconds, bucketSize.toSeconds());
+    }
+
+    public String key(String keySpace, long epochSeconds) {
+        return keySpace + label + ":" + bucketStart(epochSeconds);
+    }
+
+    public Duration getBucketSize() {
+        return bucketSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+}
@@ -0,0 +1,67 @@
+package com.redis.topicextractorapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearDuplicateDetectorTest {
+
+    @Test
+    void reusesTopicsOfARepostWithAChangedWord() {
+        NearDuplicateDetector detector = new NearDuplicateDetector(100, 3);
+        detector.record("OpenAI just released a new open weights model that runs on a single GPU today", List.of("OpenAI"));
+
+        assertEquals(Optional.of(List.of("OpenAI")),
+                detector.findTopics("OpenAI just released a new open weights model that runs on a single GPU today!!"));
+        assertTrue(detector.findTopics("Tried the new Zelda game over the weekend and it is amazing").isEmpty());
+    }
+
+    @Test
+    void findsEveryFingerprintWithinTheDistance() {
+        for (int distance : new int[]{0, 3, 7, 15, 16, 20}) {
+            NearDuplicateDetector detector = new NearDuplicateDetector(100, distance);
+            long hash = 0x5DEECE66DL * 0x9E3779B97F4A7C15L;
+            detector.record(hash, List.of("topic"));
+
+            // Flip the lowest `distance` bits: the differences touch as many bands as possible
+            long flipped = distance == 0 ? hash : hash ^ (-1L >>> (64 - distance));
+            assertEquals(distance, Long.bitCount(hash ^ flipped));
+            assertTrue(detector.findTopics(flipped).isPresent(), "distance " + distance);
+
+            long tooFar = hash ^ (-1L >>> (64 - distance - 1));
+            assertTrue(detector.findTopics(tooFar).isEmpty(), "distance " + (distance + 1));
+        }
+    }
+
+    @Test
+    void forgetsFingerprintsOutsideTheWindow() {
+        NearDuplicateDetector detector = new NearDuplicateDetector(2, 3);
+        detector.record(0L, List.of("first"));
+        detector.record(-1L, List.of("second"));
+        detector.record(0xFFFFFFFFL, List.of("third"));
+
+        assertTrue(detector.findTopics(0L).isEmpty());
+        assertEquals(Optional.of(List.of("third")), detector.findTopics(0xFFFFFFFFL));
+    }
+
+    @Test
+    void ignoresTextsWithoutWords() {
+        NearDuplicateDetector detector = new NearDuplicateDetector(100, 3);
+        detector.record("", List.of("empty"));
+        detector.record("🔥🔥🔥 !!!", List.of("emoji"));
+
+        assertFalse(NearDuplicateDetector.hasWords("  ?! "));
+        assertTrue(detector.findTopics("").isEmpty());
+        assertTrue(detector.findTopics("🔥 ?").isEmpty());
+    }
+
+    @Test
+    void hashesShortTextsDeterministically() {
+        assertEquals(NearDuplicateDetector.simHash("GPT"), NearDuplicateDetector.simHash("gpt"));
+        assertEquals(NearDuplicateDetector.simHash("new model"), NearDuplicateDetector.simHash("NEW   model"));
+        assertNotEquals(NearDuplicateDetector.simHash("new model"), NearDuplicateDetector.simHash("old model"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.redis.topicextractorapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimiterTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void allowsABurstUpToCapacity() {
+        RateLimiter rateLimiter = new RateLimiter(1, 3, nanoTime::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire());
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.tryAcquire());
+    }
+
+    @Test
+    void waitsForTheNextPermitOnceEmpty() {
+        RateLimiter rateLimiter = new RateLimiter(10, 1, nanoTime::get);
+        assertEquals(0, rateLimiter.tryAcquire());
+
+        // At 10 permits/s the next permit is 100 ms away, and partly refilled after 40 ms
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire());
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(60), rateLimiter.tryAcquire());
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        assertEquals(0, rateLimiter.tryAcquire());
+    }
+
+    @Test
+    void refillsNoFurtherThanCapacity() {
+        RateLimiter rateLimiter = new RateLimiter(10, 2, nanoTime::get);
+        nanoTime.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire());
+    }
+
+    @Test
+    void keepsAtLeastOnePermitOfCapacity() {
+        RateLimiter rateLimiter = new RateLimiter(1_000, 0, nanoTime::get);
+
+        assertEquals(0, rateLimiter.tryAcquire());
+    }
+}
@@ -0,0 +1,47 @@
+package com.redis.topicextractorapp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TopKAggregatorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsCountsOfARetiredBucketWhoseFlushFailedWhileALatePostReopenedIt() {
+        TopKService topKService = mock(TopKService.class);
+        TopKAggregator aggregator = new TopKAggregator(topKService);
+        ReflectionTestUtils.setField(aggregator, "flushMaxTopics", 1000);
+
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicLong sent = new AtomicLong();
+        when(topKService.incrBy(anyString(), anyMap())).thenAnswer(invocation -> {
+            if (failed.compareAndSet(false, true)) {
+                // A late post for the same (already retired) bucket arrives during the failing flush
+                aggregator.add(0, List.of("llm"));
+                throw new IllegalStateException("connection reset");
+            }
+            sent.addAndGet(((Map<String, Long>) invocation.getArgument(1)).getOrDefault("llm", 0L));
+            return List.of();
+        });
+
+        // Epoch second 0: both window buckets are long closed and are retired by the first flush
+        aggregator.add(0, List.of("llm"));
+        aggregator.add(0, List.of("llm"));
+        aggregator.flush();
+        aggregator.flush();
+
+        // Three posts, counted once in each of the two windows
+        assertEquals(3 * TrendingWindow.values().length, sent.get());
+    }
+}
@@ -0,0 +1,42 @@
+package com.redis.topicextractorapp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Identical to the test in 4-data-analysis-app, so both copies of normalize are held to the same cases
+class TopicCanonicalizerTest {
+
+    @Test
+    void normalizesCaseQuotesAndSeparators() {
+        assertEquals("retrieval augmented generation", TopicCanonicalizer.normalize("  \"Retrieval-Augmented_Generation\" "));
+        assertEquals("gpt", TopicCanonicalizer.normalize("`GPT`"));
+    }
+
+    @Test
+    void singularizesTheLastWordOnly() {
+        assertEquals("llm", TopicCanonicalizer.normalize("LLMs"));
+        assertEquals("large language model", TopicCanonicalizer.normalize("Large Language Models"));
+        assertEquals("ai agent", TopicCanonicalizer.normalize("AI agents"));
+        assertEquals("ai agency", TopicCanonicalizer.normalize("AI agencies"));
+        assertEquals("diffusion models research", TopicCanonicalizer.normalize("Diffusion Models Research"));
+    }
+
+    @Test
+    void keepsWordsThatAreNotPlurals() {
+        assertEquals("news", TopicCanonicalizer.normalize("News"));
+        assertEquals("data analysis", TopicCanonicalizer.normalize("Data Analysis"));
+        assertEquals("kubernetes", TopicCanonicalizer.normalize("Kubernetes"));
+        assertEquals("ai ethics", TopicCanonicalizer.normalize("AI Ethics"));
+        assertEquals("robotics", TopicCanonicalizer.normalize("Robotics"));
+        assertEquals("corpus", TopicCanonicalizer.normalize("Corpus"));
+        assertEquals("access", TopicCanonicalizer.normalize("Access"));
+        assertEquals("time series", TopicCanonicalizer.normalize("Time Series"));
+    }
+
+    @Test
+    void leavesShortWordsAlone() {
+        assertEquals("aws", TopicCanonicalizer.normalize("AWS"));
+        assertEquals("gas", TopicCanonicalizer.normalize("gas"));
+    }
+}
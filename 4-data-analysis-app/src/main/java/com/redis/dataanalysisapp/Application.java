@@ -73,7 +73,72 @@ public class Application {
             SemanticRouterService semanticRouterService
     ) {
         return args -> {
-            // Load references if not already loaded
+            if (!semanticRouterService.areReferencesLoaded("trending_topics")) {
+                List<String> trendingTopicsRoute = List.of(
+                        "What are the most mentioned topics?",
+                        "What's trending right now?",
+                        "What’s hot in the network",
+                        "Top topics?",
+                        "What are the most discussed topics?",
+                        "What are the most popular topics?",
+                        "What are the most talked about topics?",
+                        "What are the most mentioned topics in the AI community?"
+                );
+                semanticRouterService.loadReferences(trendingTopicsRoute, "trending_topics", 0.2);
+            }
+
+            if (!semanticRouterService.areReferencesLoaded("summarization")) {
+                List<String> summarizationRoute = List.of(
+                        "What are people saying about {topics}?",
+                        "What’s the buzz around {topics}?",
+                        "Any chatter about {topics}?",
+                        "What are folks talking about regarding {topics}?",
+                        "What’s being said about {topics} lately?",
+                        "What have people been posting about {topics}?",
+                        "What's trending in conversations about {topics}?",
+                        "What’s the latest talk on {topics}?",
+                        "Any recent posts about {topics}?",
+                        "What's the sentiment around {topics}?",
+                        "What are people saying about {topic1} and {topic2}?",
+                        "What are folks talking about when it comes to {topic1}, {topic2}, or both?",
+                        "What’s being said about {topic1}, {topic2}, and others?",
+                        "Is there any discussion around {topic1} and {topic2}?",
+                        "How are people reacting to both {topic1} and {topic2}?",
+                        "What’s the conversation like around {topic1}, {topic2}, or related topics?",
+                        "Are {topic1} and {topic2} being discussed together?",
+                        "Any posts comparing {topic1} and {topic2}?",
+                        "What's trending when it comes to {topic1} and {topic2}?",
+                        "What are people saying about the relationship between {topic1} and {topic2}?",
+                        "What’s the latest discussion on {topic1} and {topic2}?"
+                );
+                semanticRouterService.loadReferences(summarizationRoute, "summarization", 0.55);
+            }
+
+            if (!semanticRouterService.areReferencesLoaded("related_topics")) {
+                List<String> relatedTopicsRoute = List.of(
+                        "What topics are related to {topic}?",
+                        "What else comes up with {topic}?",
+                        "What do people mention alongside {topic}?",
+                        "Which topics are connected to {topic}?",
+                        "What goes together with {topic}?",
+                        "What is {topic} usually discussed with?",
+                        "Topics similar to {topic}?",
+                        "If I like {topic}, what else should I follow?"
+                );
+                semanticRouterService.loadReferences(relatedTopicsRoute, "related_topics", 0.45);
+            }
+
+            if (!semanticRouterService.areReferencesLoaded("hot_threads")) {
+                List<String> hotThreadsRoute = List.of(
+                        "What are the hottest threads right now?",
+                        "Which conversations are blowing up?",
+                        "What threads are people replying to the most?",
+                        "Where is the most discussion happening?",
+                        "Any heated debates going on?",
+                        "Which posts are getting the most replies?"
+                );
+                semanticRouterService.loadReferences(hotThreadsRoute, "hot_threads", 0.45);
+            }
         };
     }
 
@@ -82,7 +147,7 @@ public class Application {
             BloomFilterService bloomFilterService
     ) {
         return args -> {
-            //bloomFilterService.createBloomFilter("processed-posts-bf");
+            bloomFilterService.createBloomFilter(BloomFilterService.PROCESSED_POSTS);
         };
     }
 }
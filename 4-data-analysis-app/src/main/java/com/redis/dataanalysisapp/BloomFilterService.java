@@ -8,6 +8,8 @@ import redis.clients.jedis.exceptions.JedisDataException;
 
 @Service
 public class BloomFilterService {
+    public static final String PROCESSED_POSTS = "processed-posts-bf";
+
     private final Logger logger = LoggerFactory.getLogger(BloomFilterService.class);
     private final BloomOperations<String> opsForBloom;
 
@@ -24,11 +26,10 @@ public class BloomFilterService {
     }
 
     public boolean isInBloomFilter(String bloomFilter, String value) {
-        // Implement checking if the value is in the bloom filter
-        return false;
+        return opsForBloom.exists(bloomFilter, value);
     }
 
     public void addToBloomFilter(String bloomFilter, String value) {
-        // Implement adding to the bloom filter
+        opsForBloom.add(bloomFilter, value);
     }
 }
@@ -2,6 +2,10 @@ package com.redis.dataanalysisapp;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
@@ -9,16 +13,45 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.params.SetParams;
 
-import java.util.Map;
-import java.util.Objects;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
+// The session is shared through Redis by every bot instance. The access token is reused until it
+// is close to expiry, then renewed with the refresh token; the password is only used when there is
+// no usable refresh token. Renewals are single-flight: one thread per instance (local lock) and
+// one instance overall (SET NX lock) talks to Bluesky, the others wait for the stored result.
 @Service
 public class BlueskyAuthService {
+    private static final Logger logger = LoggerFactory.getLogger(BlueskyAuthService.class);
+    private static final String SESSION_KEY = "bluesky:session:";
+    private static final String LOCK_KEY = "bluesky:session-lock:";
+    // Used when a token's exp claim can't be read
+    private static final Duration FALLBACK_LIFETIME = Duration.ofMinutes(15);
+    private static final String RELEASE_LOCK_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+    private record Session(String accessJwt, String refreshJwt, long accessExpiresAt, long refreshExpiresAt) {}
 
     private final RestTemplate restTemplate;
+    private final JedisPooled jedisPooled;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // A virtual thread waiting on a monitor pins its carrier; renewal blocks on HTTP and Redis
+    private final ReentrantLock renewLock = new ReentrantLock();
+    private volatile Session session;
+
+    @Value("${bluesky.session.refresh-margin:5m}")
+    private Duration refreshMargin;
+
+    @Value("${bluesky.session.lock-timeout:10s}")
+    private Duration lockTimeout;
 
     @Value("${bluesky.username}")
     private String username;
@@ -26,8 +59,9 @@ public class BlueskyAuthService {
     @Value("${bluesky.token}")
     private String password;
 
-    public BlueskyAuthService(RestTemplateBuilder restTemplateBuilder) {
+    public BlueskyAuthService(RestTemplateBuilder restTemplateBuilder, JedisPooled jedisPooled) {
         this.restTemplate = restTemplateBuilder.build();
+        this.jedisPooled = jedisPooled;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -52,6 +86,94 @@ public class BlueskyAuthService {
 
 
     public String getAccessToken() {
+        Session current = session;
+        if (isFresh(current)) {
+            return current.accessJwt();
+        }
+
+        renewLock.lock();
+        try {
+            current = loadSession();
+            if (isFresh(current)) {
+                session = current;
+                return current.accessJwt();
+            }
+
+            String lockKey = LOCK_KEY + username;
+            String lockToken = UUID.randomUUID().toString();
+            long deadline = System.currentTimeMillis() + lockTimeout.toMillis();
+            while (!"OK".equals(jedisPooled.set(lockKey, lockToken, SetParams.setParams().nx().px(lockTimeout.toMillis())))) {
+                // Another instance is renewing; use its session as soon as it is stored
+                sleep(Duration.ofMillis(200));
+                current = loadSession();
+                if (isFresh(current)) {
+                    session = current;
+                    return current.accessJwt();
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Timed out waiting for another instance to renew the Bluesky session");
+                }
+            }
+
+            try {
+                // The previous holder may have stored a fresh session just before the lock was freed
+                current = loadSession();
+                if (isFresh(current)) {
+                    session = current;
+                    return current.accessJwt();
+                }
+                current = renew(current);
+                storeSession(current);
+                session = current;
+                return current.accessJwt();
+            } finally {
+                jedisPooled.eval(RELEASE_LOCK_SCRIPT, List.of(lockKey), List.of(lockToken));
+            }
+        } finally {
+            renewLock.unlock();
+        }
+    }
+
+    // XRPC reports an expired or revoked access token as 400 ExpiredToken/InvalidToken, not only as 401
+    public static boolean isSessionRejected(HttpClientErrorException e) {
+        if (e.getStatusCode().value() == 401) {
+            return true;
+        }
+        String body = e.getResponseBodyAsString();
+        return e.getStatusCode().value() == 400 && (body.contains("\"ExpiredToken\"") || body.contains("\"InvalidToken\""));
+    }
+
+    // Called when Bluesky rejects a token before its exp, e.g. after the session was revoked
+    public void invalidate(String accessJwt) {
+        Session current = session;
+        if (current != null && current.accessJwt().equals(accessJwt)) {
+            session = null;
+        }
+        String key = SESSION_KEY + username;
+        if (accessJwt.equals(jedisPooled.hget(key, "accessJwt"))) {
+            jedisPooled.hset(key, "accessExpiresAt", "0");
+        }
+    }
+
+    private Session renew(Session stored) {
+        long now = Instant.now().getEpochSecond();
+        if (stored != null && stored.refreshJwt() != null && stored.refreshExpiresAt() > now + refreshMargin.toSeconds()) {
+            try {
+                Session refreshed = toSession(refreshSession(stored.refreshJwt()));
+                logger.info("🔑 Refreshed Bluesky session, access token valid until {}",
+                        Instant.ofEpochSecond(refreshed.accessExpiresAt()));
+                return refreshed;
+            } catch (Exception e) {
+                logger.warn("Refreshing the Bluesky session failed, creating a new one: {}", e.getMessage());
+            }
+        }
+
+        Session created = toSession(createSession());
+        logger.info("🔑 Created Bluesky session, access token valid until {}", Instant.ofEpochSecond(created.accessExpiresAt()));
+        return created;
+    }
+
+    private LoginResponse createSession() {
         Map<String, String> payload = Map.of(
                 "identifier", username,
                 "password", password
@@ -67,6 +189,85 @@ public class BlueskyAuthService {
                 LoginResponse.class
         );
 
-        return Objects.requireNonNull(response.getBody()).getAccessJwt();
+        return Objects.requireNonNull(response.getBody());
+    }
+
+    private LoginResponse refreshSession(String refreshJwt) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(refreshJwt);
+
+        ResponseEntity<LoginResponse> response = restTemplate.postForEntity(
+                "https://bsky.social/xrpc/com.atproto.server.refreshSession",
+                new HttpEntity<>(headers),
+                LoginResponse.class
+        );
+
+        return Objects.requireNonNull(response.getBody());
+    }
+
+    private boolean isFresh(Session candidate) {
+        return candidate != null
+                && candidate.accessExpiresAt() > Instant.now().getEpochSecond() + refreshMargin.toSeconds();
+    }
+
+    private Session loadSession() {
+        Map<String, String> fields = jedisPooled.hgetAll(SESSION_KEY + username);
+        if (fields.get("accessJwt") == null) {
+            return null;
+        }
+        return new Session(
+                fields.get("accessJwt"),
+                fields.get("refreshJwt"),
+                Long.parseLong(fields.getOrDefault("accessExpiresAt", "0")),
+                Long.parseLong(fields.getOrDefault("refreshExpiresAt", "0")));
+    }
+
+    private void storeSession(Session stored) {
+        String key = SESSION_KEY + username;
+        Map<String, String> fields = new HashMap<>();
+        fields.put("accessJwt", stored.accessJwt());
+        fields.put("accessExpiresAt", String.valueOf(stored.accessExpiresAt()));
+        if (stored.refreshJwt() != null) {
+            fields.put("refreshJwt", stored.refreshJwt());
+            fields.put("refreshExpiresAt", String.valueOf(stored.refreshExpiresAt()));
+        }
+
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.del(key);
+            pipeline.hset(key, fields);
+            pipeline.expireAt(key, Math.max(stored.accessExpiresAt(), stored.refreshExpiresAt()));
+            pipeline.sync();
+        }
+    }
+
+    private Session toSession(LoginResponse response) {
+        return new Session(
+                response.getAccessJwt(),
+                response.getRefreshJwt(),
+                expiresAt(response.getAccessJwt()),
+                response.getRefreshJwt() != null ? expiresAt(response.getRefreshJwt()) : 0);
+    }
+
+    // Only the exp claim is read; the token was just issued by Bluesky over TLS, so it isn't verified
+    private long expiresAt(String jwt) {
+        try {
+            String[] parts = jwt.split("\\.");
+            JsonNode claims = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            if (claims.hasNonNull("exp")) {
+                return claims.get("exp").asLong();
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read the expiry of a Bluesky token: {}", e.getMessage());
+        }
+        return Instant.now().plus(FALLBACK_LIFETIME).getEpochSecond();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the Bluesky session", e);
+        }
     }
 }
\ No newline at end of file
@@ -10,9 +10,16 @@ import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Stream;
 
 @Component
@@ -21,6 +28,12 @@ public class BlueskyBotRunner {
     @Value("${bluesky.did}")
     private String did;
 
+    @Value("${bluesky.username}")
+    private String username;
+
+    @Value("${bot.search-hours:15}")
+    private int searchHours;
+
     private static final Logger logger = LoggerFactory.getLogger(BlueskyBotRunner.class);
     private final BlueskyAuthService authService;
     private final PostSearcherService postSearcher;
@@ -31,6 +44,12 @@ public class BlueskyBotRunner {
     private final OpenAiChatModel openAiChatModel;
     private final SemanticCacheService semanticCacheService;
     private final BloomFilterService bloomFilterService;
+    private final RelatedTopicsService relatedTopicsService;
+    private final ThreadService threadService;
+    private final EmbeddingService embeddingService;
+    private final BlueskyWriteLimiter writeLimiter;
+    private final ReplyMetrics replyMetrics;
+    private final Semaphore mentionPermits;
 
     public BlueskyBotRunner(
             BlueskyAuthService authService,
@@ -38,7 +57,10 @@ public class BlueskyBotRunner {
             PostCreatorService postCreator,
             SemanticRouterService semanticRouterService,
             TrendingTopicsAnalyzer trendingTopicsAnalyzer, PostSummarizer postSummarizer,
-            OpenAiChatModel openAiChatModel, SemanticCacheService semanticCacheService, BloomFilterService bloomFilterService) {
+            OpenAiChatModel openAiChatModel, SemanticCacheService semanticCacheService, BloomFilterService bloomFilterService,
+            RelatedTopicsService relatedTopicsService, ThreadService threadService, EmbeddingService embeddingService,
+            BlueskyWriteLimiter writeLimiter, ReplyMetrics replyMetrics,
+            @Value("${bot.max-concurrent-mentions:8}") int maxConcurrentMentions) {
         this.authService = authService;
         this.postSearcher = postSearcher;
         this.postCreator = postCreator;
@@ -48,6 +70,12 @@ public class BlueskyBotRunner {
         this.openAiChatModel = openAiChatModel;
         this.semanticCacheService = semanticCacheService;
         this.bloomFilterService = bloomFilterService;
+        this.relatedTopicsService = relatedTopicsService;
+        this.threadService = threadService;
+        this.embeddingService = embeddingService;
+        this.writeLimiter = writeLimiter;
+        this.replyMetrics = replyMetrics;
+        this.mentionPermits = new Semaphore(Math.max(1, maxConcurrentMentions));
     }
 
     @Scheduled(fixedDelay = 30000)
@@ -55,12 +83,171 @@ public class BlueskyBotRunner {
         run();
     }
 
+    // Mentions are answered concurrently on virtual threads, at most max-concurrent-mentions at a
+    // time; the tick returns once all of them are done, so ticks never overlap
     public void run() {
-        // Implement the logic to run the bot
+        String accessToken;
+        List<PostSearcherService.Post> posts;
+        try {
+            accessToken = authService.getAccessToken();
+        } catch (Exception e) {
+            logger.error("❌ Error getting a Bluesky session: {}", e.getMessage());
+            return;
+        }
+        try {
+            posts = postSearcher.searchPosts("@" + username, searchHours, accessToken);
+        } catch (HttpClientErrorException e) {
+            if (BlueskyAuthService.isSessionRejected(e)) {
+                // Renewed on the next tick instead of waiting for the token's exp
+                authService.invalidate(accessToken);
+                logger.error("❌ Bluesky rejected the session: {}", e.getMessage());
+            } else {
+                logger.error("❌ Error searching mentions: {}", e.getMessage());
+            }
+            return;
+        } catch (Exception e) {
+            logger.error("❌ Error searching mentions: {}", e.getMessage());
+            return;
+        }
+
+        List<PostSearcherService.Post> mentions = posts.stream()
+                .filter(post -> !bloomFilterService.isInBloomFilter(BloomFilterService.PROCESSED_POSTS, post.getUri()))
+                .toList();
+        if (mentions.isEmpty()) {
+            return;
+        }
+
+        logger.info("Answering {} new mentions", mentions.size());
+        long pickedUpMs = System.currentTimeMillis();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PostSearcherService.Post mention : mentions) {
+                executor.submit(() -> {
+                    mentionPermits.acquireUninterruptibly();
+                    try {
+                        reply(mention, pickedUpMs);
+                    } catch (Exception e) {
+                        replyMetrics.recordFailure();
+                        logger.error("❌ Error answering {}: {}", mention.getUri(), e.getMessage());
+                    } finally {
+                        mentionPermits.release();
+                    }
+                });
+            }
+        }
+        replyMetrics.report();
+    }
+
+    // Each chunk replies to the previous one, so a long answer reads in order under the mention
+    private void reply(PostSearcherService.Post mention, long pickedUpMs) {
+        String cleanedText = mention.getRecord().getText().replace("@" + username, "").trim();
+        String reply = "@" + mention.getAuthor().getHandle() + " " + answer(cleanedText);
+        List<String> chunks = postCreator.splitIntoChunks(reply, 300);
+
+        PostCreatorService.PostRef parent = new PostCreatorService.PostRef(mention.getCid(), mention.getUri());
+        PostSearcherService.Reply thread = mention.getRecord().getReply();
+        PostCreatorService.PostRef root = thread != null && thread.getRoot() != null
+                ? new PostCreatorService.PostRef(thread.getRoot().getCid(), thread.getRoot().getUri())
+                : parent;
+
+        for (int i = 0; i < chunks.size(); i++) {
+            writeLimiter.acquire();
+            Optional<PostCreatorService.PostRef> created = createReply(chunks.get(i), root, parent);
+            if (created.isEmpty()) {
+                throw new IllegalStateException("Failed to post chunk " + (i + 1) + " of " + chunks.size());
+            }
+            // Once anything is posted, the mention must not be answered again on the next tick
+            if (i == 0) {
+                bloomFilterService.addToBloomFilter(BloomFilterService.PROCESSED_POSTS, mention.getUri());
+            }
+            parent = created.get();
+        }
+
+        long nowMs = System.currentTimeMillis();
+        replyMetrics.recordReply(mentionCreatedAtMs(mention).map(createdAtMs -> nowMs - createdAtMs).orElse(null),
+                nowMs - pickedUpMs);
+    }
+
+    // Answers can take longer than the access token lives, so every write takes the current token;
+    // if Bluesky rejects it anyway, the session is renewed and the write retried once
+    private Optional<PostCreatorService.PostRef> createReply(String text, PostCreatorService.PostRef root,
+                                                             PostCreatorService.PostRef parent) {
+        String accessToken = authService.getAccessToken();
+        try {
+            return postCreator.createReply(accessToken, did, text, root, parent);
+        } catch (HttpClientErrorException e) {
+            logger.warn("Bluesky rejected the session while posting, renewing it: {}", e.getMessage());
+            authService.invalidate(accessToken);
+            return postCreator.createReply(authService.getAccessToken(), did, text, root, parent);
+        }
+    }
+
+    private Optional<Long> mentionCreatedAtMs(PostSearcherService.Post mention) {
+        try {
+            return Optional.of(Instant.parse(mention.getRecord().getCreatedAt()).toEpochMilli());
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    // The cache lookup, the router, summarization and the cache insert all embed the same text;
+    // within one request scope each distinct string is embedded only once
+    public String answer(String userPost) {
+        try (var ignored = embeddingService.openRequest("user request")) {
+            String response = semanticCacheService.getFromCache(userPost);
+            if (!response.isBlank()) {
+                return response;
+            }
+
+            Set<String> matchedRoutes = semanticRouterService.matchRoute(userPost);
+            response = processUserRequest(userPost, matchedRoutes);
+            // Fallback answers for unrouted posts are not worth caching
+            if (!matchedRoutes.isEmpty()) {
+                semanticCacheService.insertIntoCache(userPost, response, matchedRoutes);
+            }
+            return response;
+        }
     }
 
     public String processUserRequest(String userPost) {
-        // Implement the logic to process the user request
-        return null;
+        return processUserRequest(userPost, semanticRouterService.matchRoute(userPost));
+    }
+
+    private String processUserRequest(String userPost, Set<String> matchedRoutes) {
+        logger.info("Matched routes: {}", matchedRoutes);
+
+        if (matchedRoutes.isEmpty()) {
+            logger.warn("No matching routes found for user post: {}", userPost);
+            return "Sorry, I couldn't find any relevant information for your query. Please try asking me to talk about trending topics or summarizing posts..";
+        }
+
+        // Get data based on the matched routes
+        List<String> enrichedData = matchedRoutes.stream()
+                .flatMap(route -> switch (route) {
+                    case "trending_topics" -> Stream.of(
+                            "Trending topics: " + trendingTopicsAnalyzer.getTrendingTopics(),
+                            "Trending hashtags: " + trendingTopicsAnalyzer.getTrendingHashtags(Duration.ofHours(1)),
+                            "Most shared sites: " + trendingTopicsAnalyzer.getTrendingDomains(Duration.ofHours(1)));
+                    case "summarization" -> postSummarizer.summarizePosts(userPost).stream();
+                    case "related_topics" -> relatedTopicsService.describeRelatedTopics(userPost).stream();
+                    case "hot_threads" -> threadService.describeHotThreads().stream();
+                    default -> {
+                        logger.warn("No handler for route: {}", route);
+                        yield Stream.of("");
+                    }
+                }).toList();
+
+        logger.info("Enriched data: {}", enrichedData.toString());
+
+        // Generate a response using the LLM
+        String systemPrompt = "You are a bot that helps users analyse posts about artificial intelligence posts. You may be given a data set to help you answer questions. Answer in a max od 300 chars. I MEAN IT. It's a TWEET. Don't write more than 300 chars. Respond in only ONE paragraph. Be as concise as possible";
+
+        List<Message> messages = List.of(
+                new SystemMessage(systemPrompt),
+                new SystemMessage("Enriching data: " + enrichedData),
+                new UserMessage("User query: " + userPost)
+        );
+
+        Prompt prompt = new Prompt(messages);
+        return openAiChatModel.call(prompt).getResult().getOutput().getText();
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.redis.dataanalysisapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bluesky meters writes in points per account: creating a record costs 3 points, with 5,000
+// points per hour and 35,000 per day. The budget is counted in Redis per account, so every
+// instance of the bot posting as the same account draws from the same windows.
+@Component
+public class BlueskyWriteLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(BlueskyWriteLimiter.class);
+    private static final String KEY_PREFIX = "bluesky:write-points:";
+
+    record Window(String name, Duration length, long points) {}
+
+    private final JedisPooled jedisPooled;
+    private final String account;
+    private final long createCost;
+    private final List<Window> windows;
+
+    public BlueskyWriteLimiter(
+            JedisPooled jedisPooled,
+            @Value("${bluesky.did}") String account,
+            @Value("${bluesky.rate-limit.points-per-hour:5000}") long pointsPerHour,
+            @Value("${bluesky.rate-limit.points-per-day:35000}") long pointsPerDay,
+            @Value("${bluesky.rate-limit.create-cost:3}") long createCost,
+            @Value("${bluesky.rate-limit.burst:50}") long burst) {
+        this.jedisPooled = jedisPooled;
+        this.account = account;
+        this.createCost = createCost;
+        // The burst caps creates per minute, so a backlog of mentions can't spend the hour in one go
+        long createsPerMinute = Math.max(1, Math.min(burst, pointsPerHour / createCost));
+        this.windows = List.of(
+                new Window("minute", Duration.ofMinutes(1), createsPerMinute * createCost),
+                new Window("hour", Duration.ofHours(1), pointsPerHour),
+                new Window("day", Duration.ofDays(1), pointsPerDay));
+
+        logger.info("Bluesky writes for {} limited to {} posts/hour and {} posts/day (burst {}/minute)",
+                account, pointsPerHour / createCost, pointsPerDay / createCost, createsPerMinute);
+    }
+
+    public void acquire() {
+        while (true) {
+            long waitMs = tryAcquire(System.currentTimeMillis());
+            if (waitMs == 0) {
+                return;
+            }
+            logger.debug("Bluesky write budget spent, waiting {} ms", waitMs);
+            try {
+                Thread.sleep(waitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the Bluesky write budget", e);
+            }
+        }
+    }
+
+    // Charges a create against every window. If any window is spent the points are handed back,
+    // and the wait is until the last spent window rolls over.
+    long tryAcquire(long nowMs) {
+        List<String> keys = windows.stream()
+                .map(window -> key(window, nowMs))
+                .toList();
+        List<Response<Long>> used = new ArrayList<>();
+        try (var pipeline = jedisPooled.pipelined()) {
+            for (int i = 0; i < windows.size(); i++) {
+                used.add(pipeline.incrBy(keys.get(i), createCost));
+                pipeline.expire(keys.get(i), windows.get(i).length().multipliedBy(2).toSeconds());
+            }
+            pipeline.sync();
+        }
+
+        long waitMs = 0;
+        for (int i = 0; i < windows.size(); i++) {
+            if (used.get(i).get() > windows.get(i).points()) {
+                waitMs = Math.max(waitMs, windowStart(windows.get(i), nowMs) + windows.get(i).length().toMillis() - nowMs);
+            }
+        }
+        if (waitMs > 0) {
+            try (var pipeline = jedisPooled.pipelined()) {
+                keys.forEach(key -> pipeline.decrBy(key, createCost));
+                pipeline.sync();
+            }
+        }
+        return waitMs;
+    }
+
+    private String key(Window window, long nowMs) {
+        return KEY_PREFIX + account + ":" + window.name() + ":" + windowStart(window, nowMs) / 1_000;
+    }
+
+    private static long windowStart(Window window, long nowMs) {
+        return nowMs - nowMs % window.length().toMillis();
+    }
+}
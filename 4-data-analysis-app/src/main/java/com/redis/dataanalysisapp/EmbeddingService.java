@@ -0,0 +1,149 @@
+package com.redis.dataanalysisapp;
+
+import com.redis.om.spring.metamodel.MetamodelField;
+import com.redis.om.spring.vectorize.Embedder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Every embedding goes through here, memoized by (model, text). Inside a request scope the same
+// string is embedded at most once, however many services ask for it; outside of it a short-lived
+// memo still absorbs repeats. Misses are sent to the provider in a single batched call.
+@Service
+public class EmbeddingService {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingService.class);
+    private static final ThreadLocal<RequestScope> currentRequest = new ThreadLocal<>();
+
+    // The metamodel field only selects the provider and model configured in its @Vectorize
+    public enum Model {
+        OPENAI_TEXT_EMBEDDING_3_LARGE(Routing$.TEXT),
+        ALL_MINILM_L6_V2(StreamEvent$.TEXT_TO_EMBED);
+
+        private final MetamodelField<?, ?> field;
+
+        Model(MetamodelField<?, ?> field) {
+            this.field = field;
+        }
+    }
+
+    private record Key(Model model, String text) {}
+
+    private record Memo(byte[] embedding, long expiresAtMs) {}
+
+    private final Embedder embedder;
+    private final Map<Key, Memo> memo;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong embeddedRemotely = new AtomicLong();
+    private final AtomicLong remoteCalls = new AtomicLong();
+
+    @Value("${embeddings.memo-ttl:5m}")
+    private Duration memoTtl;
+
+    public EmbeddingService(Embedder embedder, @Value("${embeddings.memo-max-entries:5000}") int memoMaxEntries) {
+        this.embedder = embedder;
+        this.memo = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Memo> eldest) {
+                return size() > memoMaxEntries;
+            }
+        };
+    }
+
+    public final class RequestScope implements AutoCloseable {
+        private final String label;
+        private final boolean owner;
+        private final Map<Key, byte[]> embeddings = new HashMap<>();
+        private long scopeRequested;
+        private long scopeEmbeddedRemotely;
+        private long scopeRemoteCalls;
+
+        private RequestScope(String label, boolean owner) {
+            this.label = label;
+            this.owner = owner;
+        }
+
+        @Override
+        public void close() {
+            if (!owner) {
+                return;
+            }
+            currentRequest.remove();
+            logger.info("📊 Embeddings for {}: {} texts requested, {} embedded in {} remote calls, {} remote embeddings saved",
+                    label, scopeRequested, scopeEmbeddedRemotely, scopeRemoteCalls, scopeRequested - scopeEmbeddedRemotely);
+        }
+    }
+
+    // Scopes don't nest: an inner scope joins the one already open on this thread
+    public RequestScope openRequest(String label) {
+        RequestScope current = currentRequest.get();
+        if (current != null) {
+            return new RequestScope(label, false);
+        }
+        RequestScope scope = new RequestScope(label, true);
+        currentRequest.set(scope);
+        return scope;
+    }
+
+    public byte[] embed(String text, Model model) {
+        return embed(List.of(text), model).getFirst();
+    }
+
+    public List<byte[]> embed(List<String> texts, Model model) {
+        RequestScope scope = currentRequest.get();
+        long nowMs = System.currentTimeMillis();
+
+        List<Key> keys = texts.stream().map(text -> new Key(model, text.strip())).toList();
+        Map<Key, byte[]> found = new HashMap<>();
+        for (Key key : keys) {
+            byte[] embedding = scope != null ? scope.embeddings.get(key) : null;
+            if (embedding == null) {
+                synchronized (memo) {
+                    Memo memoized = memo.get(key);
+                    if (memoized != null && memoized.expiresAtMs() > nowMs) {
+                        embedding = memoized.embedding();
+                    }
+                }
+            }
+            if (embedding != null) {
+                found.put(key, embedding);
+            }
+        }
+
+        List<Key> missing = keys.stream().filter(key -> !found.containsKey(key)).distinct().toList();
+        if (!missing.isEmpty()) {
+            List<byte[]> embeddings = embedder.getTextEmbeddingsAsBytes(
+                    missing.stream().map(Key::text).toList(), model.field);
+            synchronized (memo) {
+                for (int i = 0; i < missing.size(); i++) {
+                    found.put(missing.get(i), embeddings.get(i));
+                    memo.put(missing.get(i), new Memo(embeddings.get(i), nowMs + memoTtl.toMillis()));
+                }
+            }
+        }
+
+        requested.addAndGet(keys.size());
+        embeddedRemotely.addAndGet(missing.size());
+        remoteCalls.addAndGet(missing.isEmpty() ? 0 : 1);
+        if (scope != null) {
+            keys.forEach(key -> scope.embeddings.put(key, found.get(key)));
+            scope.scopeRequested += keys.size();
+            scope.scopeEmbeddedRemotely += missing.size();
+            scope.scopeRemoteCalls += missing.isEmpty() ? 0 : 1;
+        }
+
+        return keys.stream().map(found::get).toList();
+    }
+
+    public long getCallsSaved() {
+        return requested.get() - embeddedRemotely.get();
+    }
+
+    public long getRemoteCalls() {
+        return remoteCalls.get();
+    }
+}
@@ -0,0 +1,122 @@
+package com.redis.dataanalysisapp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPooled;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+
+// Exact-match tier in front of the semantic cache, keyed by a hash of the normalized question.
+// A small in-process LRU answers repeats without any network call; the Redis tier is shared by
+// all instances. Redis fields expire together with the semantic entry they came from, and
+// evicted or invalidated entries are removed from both tiers. Removals made by another instance
+// only reach this instance's local tier once local-ttl has passed.
+@Component
+public class ExactMatchCache {
+    public static final String ANSWERS_KEY = "semantic-cache:exact";
+    public static final String IDS_KEY = "semantic-cache:exact-ids";
+
+    private record LocalEntry(String entryId, String answer, long expiresAtMs) {}
+
+    private final JedisPooled jedisPooled;
+    private final Map<String, LocalEntry> local;
+
+    @Value("${semantic-cache.exact.local-ttl:60s}")
+    private Duration localTtl;
+
+    public ExactMatchCache(JedisPooled jedisPooled,
+                           @Value("${semantic-cache.exact.max-local-entries:1000}") int maxLocalEntries) {
+        this.jedisPooled = jedisPooled;
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                return size() > maxLocalEntries;
+            }
+        };
+    }
+
+    public record Hit(String entryId, String answer, boolean local) {}
+
+    public Optional<Hit> get(String post) {
+        String key = key(post);
+        synchronized (local) {
+            LocalEntry entry = local.get(key);
+            if (entry != null && entry.expiresAtMs() > System.currentTimeMillis()) {
+                return Optional.of(new Hit(entry.entryId(), entry.answer(), true));
+            }
+            if (entry != null) {
+                local.remove(key);
+            }
+        }
+
+        // Stored as "<entry id>|<answer>" so hits can still refresh the entry's usage score
+        String value = jedisPooled.hget(ANSWERS_KEY, key);
+        if (value == null || value.indexOf('|') < 0) {
+            return Optional.empty();
+        }
+        Hit hit = new Hit(value.substring(0, value.indexOf('|')), value.substring(value.indexOf('|') + 1), false);
+        synchronized (local) {
+            local.put(key, new LocalEntry(hit.entryId(), hit.answer(), System.currentTimeMillis() + localTtl.toMillis()));
+        }
+        return Optional.of(hit);
+    }
+
+    public void put(String post, String entryId, String answer, Duration ttl) {
+        String key = key(post);
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.hset(ANSWERS_KEY, key, entryId + "|" + answer);
+            pipeline.hset(IDS_KEY, entryId, key);
+            pipeline.hexpire(ANSWERS_KEY, ttl.toSeconds(), key);
+            pipeline.hexpire(IDS_KEY, ttl.toSeconds(), entryId);
+            pipeline.sync();
+        }
+        synchronized (local) {
+            local.put(key, new LocalEntry(entryId, answer,
+                    System.currentTimeMillis() + Math.min(ttl.toMillis(), localTtl.toMillis())));
+        }
+    }
+
+    public void remove(List<String> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = jedisPooled.hmget(IDS_KEY, entryIds.toArray(String[]::new)).stream()
+                .filter(Objects::nonNull)
+                .toList();
+        try (var pipeline = jedisPooled.pipelined()) {
+            if (!keys.isEmpty()) {
+                pipeline.hdel(ANSWERS_KEY, keys.toArray(String[]::new));
+            }
+            pipeline.hdel(IDS_KEY, entryIds.toArray(String[]::new));
+            pipeline.sync();
+        }
+
+        Set<String> removedIds = new HashSet<>(entryIds);
+        synchronized (local) {
+            local.keySet().removeAll(keys);
+            local.values().removeIf(entry -> removedIds.contains(entry.entryId()));
+        }
+    }
+
+    // Case, surrounding punctuation and repeated whitespace don't change the question
+    static String normalize(String post) {
+        return post.toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("^[\\p{Punct}\\s]+|[\\p{Punct}\\s]+$", "");
+    }
+
+    private static String key(String post) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalize(post).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
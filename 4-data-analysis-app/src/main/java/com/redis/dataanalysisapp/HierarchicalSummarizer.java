@@ -0,0 +1,328 @@
+package com.redis.dataanalysisapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Map-reduce summarization of a topic over a window. Posts are split into hour buckets; each
+// bucket's posts are chunked by token budget, the chunks summarized in parallel (map) and the
+// chunk summaries merged into one partial summary per bucket (reduce). Partials are cached per
+// (topic, bucket), so a later question only summarizes posts newer than what is already cached.
+// "Newer" follows when the topic extractor stored a post, not when it was made: retried or
+// late posts land in buckets that were already summarized.
+@Service
+public class HierarchicalSummarizer {
+    private static final Logger logger = LoggerFactory.getLogger(HierarchicalSummarizer.class);
+    private static final String PARTIAL_KEY_SPACE = "topic-summary-part:";
+    private static final TrendingWindow BUCKETS = TrendingWindow.HOUR;
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final JedisPooled jedisPooled;
+    private final EntityStream entityStream;
+    private final OpenAiChatModel chatModel;
+    private final Semaphore llmPermits;
+
+    @Value("${summarizer.chunk-token-budget:3000}")
+    private int chunkTokenBudget;
+
+    @Value("${summarizer.max-posts-per-bucket:1000}")
+    private int maxPostsPerBucket;
+
+    @Value("${summarizer.bucket-grace:5m}")
+    private Duration bucketGrace;
+
+    @Value("${summarizer.partial-ttl:26h}")
+    private Duration partialTtl;
+
+    @Value("${summarizer.store-settle:30s}")
+    private Duration storeSettle;
+
+    // storedUntilMs: every post of the bucket stored up to then is part of the summary
+    private record Partial(String summary, long posts, long lastTimeUs, long storedUntilMs, boolean complete) {}
+
+    // storedUntilMs: posts of the topic stored after this are not in the summary yet
+    public record TopicSummary(String summary, long posts, long lastTimeUs, long storedUntilMs) {}
+
+    public HierarchicalSummarizer(JedisPooled jedisPooled, EntityStream entityStream, OpenAiChatModel chatModel,
+                                  @Value("${summarizer.max-parallel-calls:4}") int maxParallelCalls) {
+        this.jedisPooled = jedisPooled;
+        this.entityStream = entityStream;
+        this.chatModel = chatModel;
+        this.llmPermits = new Semaphore(maxParallelCalls);
+    }
+
+    public TopicSummary summarizeTopic(String topic, Duration window) {
+        long now = Instant.now().getEpochSecond();
+        List<String> bucketKeys = BUCKETS.keys(PARTIAL_KEY_SPACE + topic + ":", now, window);
+
+        // Buckets are refreshed in parallel; their LLM calls still share llmPermits
+        List<Partial> refreshed = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Partial>> futures = bucketKeys.reversed().stream()
+                    .map(bucketKey -> executor.submit(() -> refreshBucket(topic, bucketKey,
+                            Long.parseLong(bucketKey.substring(bucketKey.lastIndexOf(':') + 1)), now)))
+                    .toList();
+            for (Future<Partial> future : futures) {
+                refreshed.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while refreshing buckets", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to refresh bucket", e.getCause());
+        }
+
+        List<String> partials = new ArrayList<>();
+        long posts = 0;
+        long lastTimeUs = 0;
+        long storedUntilMs = now * 1_000 - storeSettle.toMillis();
+        for (Partial partial : refreshed) {
+            if (partial == null) {
+                continue;
+            }
+            // A truncated bucket is behind the others; complete buckets no longer take new posts
+            if (!partial.complete()) {
+                storedUntilMs = Math.min(storedUntilMs, partial.storedUntilMs());
+            }
+            if (!partial.summary().isBlank()) {
+                partials.add(partial.summary());
+                posts += partial.posts();
+                lastTimeUs = Math.max(lastTimeUs, partial.lastTimeUs());
+            }
+        }
+
+        if (partials.isEmpty()) {
+            return new TopicSummary("", 0, 0, storedUntilMs);
+        }
+        return new TopicSummary(reduce(topic, partials), posts, lastTimeUs, storedUntilMs);
+    }
+
+    // Posts of the window stored after storedUntilMs, whenever they were made
+    public long countPostsStoredSince(String topic, Duration window, long storedUntilMs) {
+        long fromUs = (Instant.now().getEpochSecond() - window.toSeconds()) * 1_000_000;
+        return entityStream.of(StreamEvent.class)
+                .filter(StreamEvent$.TOPICS.eq(List.of(topic)))
+                .filter(StreamEvent$.TIME_US.gt(fromUs - 1))
+                .filter(StreamEvent$.TOPICS_STORED_AT.gt(storedUntilMs))
+                .count();
+    }
+
+    private Partial refreshBucket(String topic, String key, long bucketStart, long now) {
+        Partial cached = load(key);
+        long bucketEnd = bucketStart + BUCKETS.getBucketSize().toSeconds();
+        if (cached != null && cached.complete()) {
+            return cached;
+        }
+
+        // Only posts stored after the cached partial need to be summarized. Posts stored in the last
+        // few seconds are left for the next refresh, so a batch still being written is not split
+        long fromMs = cached != null ? cached.storedUntilMs() + 1 : 0;
+        long untilMs = now * 1_000 - storeSettle.toMillis();
+        List<StreamEvent> posts = entityStream.of(StreamEvent.class)
+                .filter(StreamEvent$.TOPICS.eq(List.of(topic)))
+                .filter(StreamEvent$.TIME_US.between(bucketStart * 1_000_000, bucketEnd * 1_000_000 - 1))
+                .filter(StreamEvent$.TOPICS_STORED_AT.between(fromMs, untilMs))
+                .sorted(StreamEvent$.TOPICS_STORED_AT)
+                .limit(maxPostsPerBucket)
+                .collect(Collectors.toList());
+
+        long storedUntilMs = untilMs;
+        if (posts.size() >= maxPostsPerBucket) {
+            // Truncated: stop before the last store time, whose batch may continue past the limit
+            long lastStoredAt = posts.getLast().getTopicsStoredAt();
+            List<StreamEvent> before = posts.stream()
+                    .filter(post -> post.getTopicsStoredAt() < lastStoredAt)
+                    .toList();
+            if (!before.isEmpty()) {
+                posts = before;
+                storedUntilMs = lastStoredAt - 1;
+            } else {
+                storedUntilMs = lastStoredAt;
+            }
+        }
+
+        long summarized = (cached != null ? cached.posts() : 0) + posts.size();
+        // A closed bucket is only final once every post in it has been summarized
+        boolean complete = now > bucketEnd + bucketGrace.toSeconds()
+                && countPosts(topic, bucketStart, bucketEnd) <= summarized;
+        if (posts.isEmpty()) {
+            if (cached == null) {
+                return null;
+            }
+            Partial partial = new Partial(cached.summary(), cached.posts(), cached.lastTimeUs(), storedUntilMs, complete);
+            save(key, partial);
+            return partial;
+        }
+
+        List<String> pieces = new ArrayList<>();
+        if (cached != null && !cached.summary().isBlank()) {
+            pieces.add(cached.summary());
+        }
+        pieces.addAll(map(topic, posts.stream().map(StreamEvent::getText).toList()));
+
+        long lastTimeUs = posts.stream().mapToLong(StreamEvent::getTimeUs).max().orElse(0);
+        Partial partial = new Partial(
+                reduce(topic, pieces),
+                summarized,
+                Math.max(lastTimeUs, cached != null ? cached.lastTimeUs() : 0),
+                storedUntilMs,
+                complete);
+        save(key, partial);
+        logger.info("Summarized {} new posts for '{}' in bucket {}", posts.size(), topic, bucketStart);
+        return partial;
+    }
+
+    private long countPosts(String topic, long bucketStart, long bucketEnd) {
+        return entityStream.of(StreamEvent.class)
+                .filter(StreamEvent$.TOPICS.eq(List.of(topic)))
+                .filter(StreamEvent$.TIME_US.between(bucketStart * 1_000_000, bucketEnd * 1_000_000 - 1))
+                .count();
+    }
+
+    // Map: one LLM call per chunk, in parallel
+    private List<String> map(String topic, List<String> texts) {
+        return summarizeInParallel(chunk(texts), chunk -> summarize(MAP_PROMPT, topic, chunk));
+    }
+
+    // Reduce: merge summaries until they fit in a single chunk, then merge that chunk
+    private String reduce(String topic, List<String> summaries) {
+        List<String> current = summaries;
+        while (current.size() > 1) {
+            List<List<String>> chunks = chunk(current);
+            if (chunks.size() == 1) {
+                return summarize(REDUCE_PROMPT, topic, chunks.getFirst());
+            }
+            if (chunks.size() == current.size()) {
+                // Every summary is over the budget on its own: merge them in pairs so each round shrinks
+                chunks = pairs(current);
+            }
+            current = summarizeInParallel(chunks, chunk -> summarize(REDUCE_PROMPT, topic, chunk));
+        }
+        return current.isEmpty() ? "" : current.getFirst();
+    }
+
+    private List<List<String>> chunk(List<String> texts) {
+        return chunk(texts, chunkTokenBudget * CHARS_PER_TOKEN);
+    }
+
+    // Greedy, in order; a text longer than the budget gets a chunk of its own
+    static List<List<String>> chunk(List<String> texts, int budgetChars) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        int chars = 0;
+        for (String text : texts) {
+            if (!chunk.isEmpty() && chars + text.length() > budgetChars) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chars = 0;
+            }
+            chunk.add(text);
+            chars += text.length();
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    static List<List<String>> pairs(List<String> texts) {
+        List<List<String>> pairs = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i += 2) {
+            pairs.add(texts.subList(i, Math.min(i + 2, texts.size())));
+        }
+        return pairs;
+    }
+
+    private List<String> summarizeInParallel(List<List<String>> chunks, Function<List<String>, String> summarizer) {
+        if (chunks.size() == 1) {
+            return List.of(summarizer.apply(chunks.getFirst()));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = chunks.stream()
+                    .map(chunk -> executor.submit(() -> summarizer.apply(chunk)))
+                    .toList();
+
+            List<String> summaries = new ArrayList<>();
+            for (Future<String> future : futures) {
+                summaries.add(future.get());
+            }
+            return summaries;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while summarizing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to summarize chunk", e.getCause());
+        }
+    }
+
+    private String summarize(String instructions, String topic, List<String> texts) {
+        Prompt prompt = new Prompt(List.of(
+                new SystemMessage(instructions),
+                new UserMessage("Topic: " + topic + "\n\n" + String.join("\n---\n", texts))
+        ));
+
+        llmPermits.acquireUninterruptibly();
+        try {
+            String text = chatModel.call(prompt).getResult().getOutput().getText();
+            return text != null ? text.trim() : "";
+        } finally {
+            llmPermits.release();
+        }
+    }
+
+    private Partial load(String key) {
+        Map<String, String> fields = jedisPooled.hgetAll(key);
+        if (fields.isEmpty()) {
+            return null;
+        }
+        return new Partial(
+                fields.getOrDefault("summary", ""),
+                Long.parseLong(fields.getOrDefault("posts", "0")),
+                Long.parseLong(fields.getOrDefault("lastTimeUs", "0")),
+                Long.parseLong(fields.getOrDefault("storedUntilMs", "0")),
+                "1".equals(fields.get("complete")));
+    }
+
+    private void save(String key, Partial partial) {
+        jedisPooled.hset(key, Map.of(
+                "summary", partial.summary(),
+                "posts", String.valueOf(partial.posts()),
+                "lastTimeUs", String.valueOf(partial.lastTimeUs()),
+                "storedUntilMs", String.valueOf(partial.storedUntilMs()),
+                "complete", partial.complete() ? "1" : "0",
+                "generatedAt", String.valueOf(Instant.now().getEpochSecond())
+        ));
+        jedisPooled.expire(key, partialTtl.toSeconds());
+    }
+
+    private static final String MAP_PROMPT = """
+        You summarize Bluesky posts about a given AI topic.
+        Summarize what the posts below say about the topic in at most 5 short bullet points.
+        Keep concrete facts, names, opinions and disagreements. Ignore posts unrelated to the topic.
+        """;
+
+    private static final String REDUCE_PROMPT = """
+        You merge partial summaries of Bluesky posts about a given AI topic.
+        Combine the summaries below into one summary of at most 5 short bullet points.
+        Merge repeated points, keep the most discussed ones, and keep disagreements visible.
+        """;
+}
@@ -1,5 +1,6 @@
 package com.redis.dataanalysisapp;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,11 +10,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class PostCreatorService {
@@ -50,6 +53,21 @@ public class PostCreatorService {
             this.cid = cid;
             this.uri = uri;
         }
+
+        public String getCid() { return cid; }
+        public String getUri() { return uri; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CreateRecordResponse {
+        @JsonProperty("uri")
+        private String uri;
+
+        @JsonProperty("cid")
+        private String cid;
+
+        public String getUri() { return uri; }
+        public String getCid() { return cid; }
     }
 
     public static class PostRecord {
@@ -90,12 +108,14 @@ public class PostCreatorService {
     }
 
     public boolean createPost(String accessToken, String repo, String text, String replyToUri, String replyToCid) {
-        ReplyRef replyRef = null;
+        PostRef ref = replyToUri != null && replyToCid != null ? new PostRef(replyToCid, replyToUri) : null;
+        return createReply(accessToken, repo, text, ref, ref).isPresent();
+    }
 
-        if (replyToUri != null && replyToCid != null) {
-            PostRef ref = new PostRef(replyToCid, replyToUri);
-            replyRef = new ReplyRef(ref, ref);
-        }
+    // Returns the created post, so the next chunk of a reply can be threaded under it. A rejected
+    // session is rethrown so the caller can renew it and retry
+    public Optional<PostRef> createReply(String accessToken, String repo, String text, PostRef root, PostRef parent) {
+        ReplyRef replyRef = root != null && parent != null ? new ReplyRef(root, parent) : null;
 
         PostRecord record = new PostRecord(text, Instant.now().toString(), replyRef);
         PostRequest postRequest = new PostRequest(repo, "app.bsky.feed.post", record);
@@ -107,23 +127,28 @@ public class PostCreatorService {
         HttpEntity<PostRequest> requestEntity = new HttpEntity<>(postRequest, headers);
 
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(
+            ResponseEntity<CreateRecordResponse> response = restTemplate.postForEntity(
                     "https://bsky.social/xrpc/com.atproto.repo.createRecord",
                     requestEntity,
-                    String.class
+                    CreateRecordResponse.class
             );
 
-            if (response.getStatusCode().is2xxSuccessful()) {
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 logger.info("✅ Post created{}!", replyRef != null ? " (as reply)" : "");
-                return true;
+                return Optional.of(new PostRef(response.getBody().getCid(), response.getBody().getUri()));
             } else {
-                logger.error("❌ Failed to create post: {}", response.getStatusCodeValue());
-                logger.error(response.getBody());
-                return false;
+                logger.error("❌ Failed to create post: {}", response.getStatusCode().value());
+                return Optional.empty();
+            }
+        } catch (HttpClientErrorException e) {
+            if (BlueskyAuthService.isSessionRejected(e)) {
+                throw e;
             }
+            logger.error("❌ Exception while creating post: " + e.getMessage());
+            return Optional.empty();
         } catch (Exception e) {
             logger.error("❌ Exception while creating post: " + e.getMessage());
-            return false;
+            return Optional.empty();
         }
     }
 
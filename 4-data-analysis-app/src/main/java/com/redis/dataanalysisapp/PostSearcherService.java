@@ -84,8 +84,36 @@ public class PostSearcherService {
         @JsonProperty("createdAt")
         private String createdAt;
 
+        @JsonProperty("reply")
+        private Reply reply;
+
         public String getText() { return text; }
         public String getCreatedAt() { return createdAt; }
+        public Reply getReply() { return reply; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Reply {
+        @JsonProperty("root")
+        private StrongRef root;
+
+        @JsonProperty("parent")
+        private StrongRef parent;
+
+        public StrongRef getRoot() { return root; }
+        public StrongRef getParent() { return parent; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class StrongRef {
+        @JsonProperty("uri")
+        private String uri;
+
+        @JsonProperty("cid")
+        private String cid;
+
+        public String getUri() { return uri; }
+        public String getCid() { return cid; }
     }
 
     public List<Post> searchPosts(String term, int hours, String accessToken) {
@@ -1,18 +1,18 @@
 package com.redis.dataanalysisapp;
 
-import org.springframework.data.domain.Sort.Direction;
-import com.redis.om.spring.repository.query.Sort;
 import com.redis.om.spring.search.stream.EntityStream;
-import com.redis.om.spring.search.stream.predicates.tag.EqualPredicate;
 import com.redis.om.spring.tuple.Fields;
+import com.redis.om.spring.tuple.Triple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import redis.clients.jedis.JedisPooled;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,15 +21,74 @@ public class PostSummarizer {
     private final JedisPooled jedisPooled;
     private final TopicExtractionService topicExtractionService;
     private final EntityStream entityStream;
+    private final EmbeddingService embeddingService;
+    private final HierarchicalSummarizer hierarchicalSummarizer;
+    private final TopicSummaryMaterializer topicSummaryMaterializer;
 
-    public PostSummarizer(TopicExtractionService topicExtractionService, EntityStream entityStream) {
+    @Value("${summarizer.window:24h}")
+    private Duration window;
+
+    @Value("${summarizer.max-posts:50}")
+    private int maxPosts;
+
+    @Value("${summarizer.evidence-posts:5}")
+    private int evidencePosts;
+
+    public record RetrievedPost(String text, String uri, long timeUs) {}
+
+    public PostSummarizer(JedisPooled jedisPooled, TopicExtractionService topicExtractionService,
+                          EntityStream entityStream, EmbeddingService embeddingService, HierarchicalSummarizer hierarchicalSummarizer,
+                          TopicSummaryMaterializer topicSummaryMaterializer) {
         this.entityStream = entityStream;
-        this.jedisPooled = new JedisPooled();
+        this.jedisPooled = jedisPooled;
         this.topicExtractionService = topicExtractionService;
+        this.embeddingService = embeddingService;
+        this.hierarchicalSummarizer = hierarchicalSummarizer;
+        this.topicSummaryMaterializer = topicSummaryMaterializer;
     }
 
     public List<String> summarizePosts(String userQuery) {
-        // Implement logic to summarize posts based on the user query
-        return null;
+        // Extract topics from the user query
+        List<String> queryTopics = topicExtractionService.extractTopics(userQuery);
+        logger.info("Query topics: {}", queryTopics);
+        if (queryTopics.isEmpty()) {
+            return List.of();
+        }
+
+        // A bounded summary per topic, plus the few posts closest to the question as examples
+        List<String> data = new ArrayList<>();
+        // Trending topics are answered from their materialized summary; only cold topics are summarized live
+        queryTopics.forEach(topic -> {
+            String summary = topicSummaryMaterializer.getSummary(topic)
+                    .orElseGet(() -> hierarchicalSummarizer.summarizeTopic(topic, window).summary());
+            if (!summary.isBlank()) {
+                data.add("Summary of posts about " + topic + ": " + summary);
+            }
+        });
+
+        long toUs = Instant.now().toEpochMilli() * 1_000;
+        long fromUs = toUs - window.toMillis() * 1_000;
+        retrievePosts(userQuery, queryTopics, fromUs, toUs, Math.min(evidencePosts, maxPosts))
+                .forEach(post -> data.add("Example post: " + post.text()));
+        return data;
+    }
+
+    // One FT.SEARCH: the topic tags and the time range pre-filter the index, KNN ranks what is
+    // left by closeness to the question, and only text, uri and timeUs are returned
+    public List<RetrievedPost> retrievePosts(String userQuery, List<String> topics, long fromUs, long toUs, int limit) {
+        byte[] queryEmbedding = embeddingService.embed(userQuery, EmbeddingService.Model.ALL_MINILM_L6_V2);
+
+        List<Triple<String, String, Long>> rows = entityStream.of(StreamEvent.class)
+                .filter(StreamEvent$.TOPICS.in(topics.toArray(String[]::new)))
+                .filter(StreamEvent$.TIME_US.between(fromUs, toUs))
+                .filter(StreamEvent$.TEXT_EMBEDDING.knn(limit, queryEmbedding))
+                .sorted(StreamEvent$._TEXT_EMBEDDING_SCORE)
+                .limit(limit)
+                .map(Fields.of(StreamEvent$.TEXT, StreamEvent$.URI, StreamEvent$.TIME_US))
+                .collect(Collectors.toList());
+
+        return rows.stream()
+                .map(row -> new RetrievedPost(row.getFirst(), row.getSecond(), row.getThird() != null ? row.getThird() : 0))
+                .toList();
     }
-}
\ No newline at end of file
+}
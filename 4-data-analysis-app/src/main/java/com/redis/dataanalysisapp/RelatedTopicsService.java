@@ -0,0 +1,51 @@
+package com.redis.dataanalysisapp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.params.ZParams;
+import redis.clients.jedis.resps.Tuple;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Reads the per-topic neighbour lists written by the topic extractor. A lookup unions one small
+// sorted set per hour in the window, so it never touches the post index.
+@Service
+public class RelatedTopicsService {
+    private static final String KEY_SPACE = "topic-cooccur:";
+
+    private final JedisPooled jedisPooled;
+    private final TopicExtractionService topicExtractionService;
+
+    @Value("${related-topics.window:24h}")
+    private Duration window;
+
+    @Value("${related-topics.limit:10}")
+    private int limit;
+
+    public RelatedTopicsService(JedisPooled jedisPooled, TopicExtractionService topicExtractionService) {
+        this.jedisPooled = jedisPooled;
+        this.topicExtractionService = topicExtractionService;
+    }
+
+    public List<Tuple> getRelatedTopics(String topic) {
+        String[] keys = TrendingWindow.HOUR.keys(KEY_SPACE, Instant.now().getEpochSecond(), window).stream()
+                .map(key -> key + ":" + topic)
+                .toArray(String[]::new);
+
+        return jedisPooled.zunionWithScores(new ZParams().aggregate(ZParams.Aggregate.SUM), keys).stream()
+                .sorted((a, b) -> Double.compare(b.getScore(), a.getScore()))
+                .limit(limit)
+                .toList();
+    }
+
+    public List<String> describeRelatedTopics(String userQuery) {
+        return topicExtractionService.extractTopics(userQuery).stream()
+                .map(topic -> "Topics related to " + topic + ": " + getRelatedTopics(topic).stream()
+                        .map(related -> related.getElement() + " (" + Math.round(related.getScore()) + " posts together)")
+                        .toList())
+                .toList();
+    }
+}
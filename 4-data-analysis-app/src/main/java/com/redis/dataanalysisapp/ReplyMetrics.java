@@ -0,0 +1,69 @@
+package com.redis.dataanalysisapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mention-to-reply latency is measured from the mention's createdAt to the last chunk being
+// posted; pickup-to-reply leaves out the time spent waiting for the next search tick.
+@Component
+public class ReplyMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(ReplyMetrics.class);
+
+    private final int sampleSize;
+    private final Deque<Long> mentionToReplyMs = new ArrayDeque<>();
+    private final Deque<Long> pickupToReplyMs = new ArrayDeque<>();
+    private final AtomicLong replies = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public ReplyMetrics(@Value("${bot.metrics.sample-size:1000}") int sampleSize) {
+        this.sampleSize = Math.max(1, sampleSize);
+    }
+
+    public void recordReply(Long mentionToReply, long pickupToReply) {
+        replies.incrementAndGet();
+        synchronized (this) {
+            if (mentionToReply != null) {
+                add(mentionToReplyMs, mentionToReply);
+            }
+            add(pickupToReplyMs, pickupToReply);
+        }
+    }
+
+    public void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public synchronized void report() {
+        if (pickupToReplyMs.isEmpty()) {
+            return;
+        }
+
+        List<Long> mention = mentionToReplyMs.stream().sorted().toList();
+        List<Long> pickup = pickupToReplyMs.stream().sorted().toList();
+        logger.info("📊 Mention to reply: p50 {} ms, p95 {} ms, max {} ms; pickup to reply: p50 {} ms, p95 {} ms ({} replies, {} failures)",
+                percentile(mention, 0.5), percentile(mention, 0.95), mention.isEmpty() ? "n/a" : mention.getLast(),
+                percentile(pickup, 0.5), percentile(pickup, 0.95),
+                replies.get(), failures.get());
+    }
+
+    private void add(Deque<Long> samples, long value) {
+        samples.addLast(value);
+        if (samples.size() > sampleSize) {
+            samples.removeFirst();
+        }
+    }
+
+    static Object percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return "n/a";
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1));
+    }
+}
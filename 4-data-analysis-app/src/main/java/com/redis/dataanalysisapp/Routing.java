@@ -2,6 +2,7 @@ package com.redis.dataanalysisapp;
 
 import com.redis.om.spring.annotations.EmbeddingProvider;
 import com.redis.om.spring.annotations.IndexingOptions;
+import com.redis.om.spring.annotations.TagIndexed;
 import com.redis.om.spring.annotations.VectorIndexed;
 import com.redis.om.spring.annotations.Vectorize;
 import com.redis.om.spring.indexing.DistanceMetric;
@@ -15,12 +16,20 @@ public class Routing {
     @Id
     private String id;
 
-    // Annotation to indicate that this field should be vectorized using OpenAI's embedding model
+    @Vectorize(
+            destination = "textEmbedding",
+            provider = EmbeddingProvider.OPENAI,
+            openAiEmbeddingModel = OpenAiApi.EmbeddingModel.TEXT_EMBEDDING_3_LARGE
+    )
     private String text;
 
-    // Annotation to indicate that this field should be indexed as a vector
+    @VectorIndexed(
+            distanceMetric = DistanceMetric.COSINE,
+            dimension = 3072
+    )
     private byte[] textEmbedding;
 
+    @TagIndexed
     private String route;
 
     private Double minThreshold;
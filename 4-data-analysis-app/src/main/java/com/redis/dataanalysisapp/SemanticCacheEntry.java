@@ -2,25 +2,47 @@ package com.redis.dataanalysisapp;
 
 import com.redis.om.spring.annotations.*;
 import com.redis.om.spring.indexing.DistanceMetric;
-import org.springframework.ai.openai.api.OpenAiApi;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.TimeToLive;
+
+import java.util.List;
 
 @IndexingOptions(indexName = "SemanticCacheIdx")
 @RedisHash
 public class SemanticCacheEntry {
+    public static final int COMPACT_DIMENSIONS = 512;
 
     @Id
     private String id;
 
-    // Annotation to indicate that this field should be vectorized using OpenAI's embedding model
     private String post;
 
-    // Annotation to indicate that this field should be indexed as a vector
+    // Only the first dimensions of the text-embedding-3-large vector are indexed (the model is
+    // trained so that a renormalized prefix is still a usable embedding); the full vector is
+    // kept unindexed for re-ranking the KNN candidates
+    @VectorIndexed(
+            distanceMetric = DistanceMetric.COSINE,
+            dimension = COMPACT_DIMENSIONS
+    )
+    private byte[] postEmbeddingCompact;
+
     private byte[] postEmbedding;
 
     private String answer;
 
+    @TagIndexed
+    private List<String> routes;
+
+    // Hour bucket the answer was produced in; answers from trending routes expire with it
+    private Long trendingBucket;
+
+    @TimeToLive
+    private Long ttl;
+
+    public SemanticCacheEntry() {
+    }
+
     public SemanticCacheEntry(String post, String answer) {
         this.post = post;
         this.answer = answer;
@@ -50,6 +72,14 @@ public class SemanticCacheEntry {
         this.postEmbedding = postEmbedding;
     }
 
+    public byte[] getPostEmbeddingCompact() {
+        return postEmbeddingCompact;
+    }
+
+    public void setPostEmbeddingCompact(byte[] postEmbeddingCompact) {
+        this.postEmbeddingCompact = postEmbeddingCompact;
+    }
+
     public String getAnswer() {
         return answer;
     }
@@ -57,4 +87,28 @@ public class SemanticCacheEntry {
     public void setAnswer(String answer) {
         this.answer = answer;
     }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+
+    public Long getTrendingBucket() {
+        return trendingBucket;
+    }
+
+    public void setTrendingBucket(Long trendingBucket) {
+        this.trendingBucket = trendingBucket;
+    }
+
+    public Long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Long ttl) {
+        this.ttl = ttl;
+    }
 }
\ No newline at end of file
@@ -3,31 +3,275 @@ package com.redis.dataanalysisapp;
 import com.redis.om.spring.search.stream.EntityStream;
 import com.redis.om.spring.tuple.Fields;
 import com.redis.om.spring.tuple.Pair;
-import com.redis.om.spring.vectorize.Embedder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.params.ZAddParams;
+import redis.clients.jedis.params.ZIncrByParams;
+import redis.clients.jedis.resps.Tuple;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
 import java.util.stream.Collectors;
 
+// A bounded semantic cache. Every entry is tracked in a usage sorted set (last access time for
+// LRU, hit count for LFU) and the lowest-scored entries are evicted once max-entries is exceeded.
+// LFU ages dynamically: a new entry starts one above the highest score evicted so far instead of
+// at zero, so it is not the first victim, and entries popular long ago eventually fall behind.
+// Entries expire after the shortest TTL of their routes, and answers from trending routes are
+// dropped as soon as the trending hour rolls over. Repeats of an already answered question are
+// served by the exact-match tier before any embedding is computed.
 @Service
 public class SemanticCacheService {
+    private static final Logger logger = LoggerFactory.getLogger(SemanticCacheService.class);
+    public static final String STATS_KEY = "semantic-cache:stats";
+    public static final String USAGE_KEY = "semantic-cache:usage";
+    public static final String EXPIRY_KEY = "semantic-cache:expiry";
+    // One member whose score is the LFU age; ZADD GT keeps it from moving backwards
+    public static final String LFU_AGE_KEY = "semantic-cache:lfu-age";
+    private static final String LFU_AGE_MEMBER = "age";
+    private static final String TRENDING_ROUTE = "trending_topics";
+
+    // Upper bounds of the distance bands reported in the stats hash
+    private static final double[] DISTANCE_BANDS = {0.05, 0.1, 0.15, 0.2, 0.25, 0.3, 0.4};
+
+    public enum Eviction { LRU, LFU }
 
     private final SemanticCacheRepository repository;
-    private final Embedder embedder;
+    private final EmbeddingService embeddingService;
     private final EntityStream entityStream;
+    private final JedisPooled jedisPooled;
+    private final ExactMatchCache exactMatchCache;
+    private final Map<String, Duration> routeTtls = new HashMap<>();
+
+    @Value("${semantic-cache.candidates:5}")
+    private int candidates;
+
+    @Value("${semantic-cache.max-distance:0.2}")
+    private double maxDistance;
+
+    @Value("${semantic-cache.max-entries:10000}")
+    private long maxEntries;
 
-    public SemanticCacheService(SemanticCacheRepository repository, Embedder embedder, EntityStream entityStream) {
+    @Value("${semantic-cache.eviction:LRU}")
+    private Eviction eviction;
+
+    @Value("${semantic-cache.default-ttl:24h}")
+    private Duration defaultTtl;
+
+    public SemanticCacheService(SemanticCacheRepository repository, EmbeddingService embeddingService, EntityStream entityStream,
+                                JedisPooled jedisPooled, ExactMatchCache exactMatchCache,
+                                @Value("${semantic-cache.route-ttls:trending_topics=1h}") String routeTtls) {
         this.repository = repository;
-        this.embedder = embedder;
+        this.embeddingService = embeddingService;
         this.entityStream = entityStream;
+        this.jedisPooled = jedisPooled;
+        this.exactMatchCache = exactMatchCache;
+        Arrays.stream(routeTtls.split(","))
+                .map(String::trim)
+                .filter(entry -> entry.contains("="))
+                .forEach(entry -> this.routeTtls.put(
+                        entry.substring(0, entry.indexOf('=')).trim(),
+                        DurationStyle.detectAndParse(entry.substring(entry.indexOf('=') + 1).trim())));
     }
 
     public void insertIntoCache(String post, String answer) {
-        // Implement logic to insert a new post and its answer into the cache
+        insertIntoCache(post, answer, Set.of());
     }
 
+    public void insertIntoCache(String post, String answer, Set<String> routes) {
+        float[] embedding = embed(post);
+        Duration ttl = routes.stream()
+                .map(route -> routeTtls.getOrDefault(route, defaultTtl))
+                .min(Comparator.naturalOrder())
+                .orElse(defaultTtl);
+
+        SemanticCacheEntry entry = new SemanticCacheEntry(post, answer);
+        entry.setPostEmbedding(VectorUtils.toBytes(embedding));
+        entry.setPostEmbeddingCompact(VectorUtils.toBytes(compact(embedding)));
+        entry.setRoutes(List.copyOf(routes));
+        entry.setTtl(ttl.toSeconds());
+        if (routes.contains(TRENDING_ROUTE)) {
+            entry.setTrendingBucket(currentTrendingBucket());
+        }
+        entry = repository.save(entry);
+
+        // Trending answers leave the exact tier when the hour rolls over, like their semantic entry
+        Duration exactTtl = entry.getTrendingBucket() == null ? ttl : Duration.ofSeconds(Math.min(ttl.toSeconds(),
+                entry.getTrendingBucket() + TrendingWindow.HOUR.getBucketSize().toSeconds() - Instant.now().getEpochSecond()));
+        exactMatchCache.put(post, entry.getId(), answer, exactTtl);
+
+        long nowMs = System.currentTimeMillis();
+        double lfuAge = eviction == Eviction.LFU ? lfuAge() : 0;
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.zadd(USAGE_KEY, initialScore(eviction, nowMs, lfuAge), entry.getId());
+            pipeline.zadd(EXPIRY_KEY, nowMs + ttl.toMillis(), entry.getId());
+            pipeline.hincrBy(STATS_KEY, "inserts", 1);
+            pipeline.sync();
+        }
+        evictOverBudget();
+    }
+
+    // The compact index only shortlists candidates; the hit decision is made on the full vectors,
+    // with the same threshold as a full-dimension KNN would use
     public String getFromCache(String post) {
-        // implement logic to retrieve an answer from the cache based on the post
-        return null;
+        Optional<ExactMatchCache.Hit> exact = exactMatchCache.get(post);
+        if (exact.isPresent()) {
+            try (var pipeline = jedisPooled.pipelined()) {
+                pipeline.hincrBy(STATS_KEY, "lookups", 1);
+                pipeline.hincrBy(STATS_KEY, "hits", 1);
+                pipeline.hincrBy(STATS_KEY, exact.get().local() ? "exact-hits:local" : "exact-hits:redis", 1);
+                if (eviction == Eviction.LRU) {
+                    pipeline.zadd(USAGE_KEY, System.currentTimeMillis(), exact.get().entryId(), ZAddParams.zAddParams().xx());
+                } else {
+                    pipeline.zincrby(USAGE_KEY, 1, exact.get().entryId(), ZIncrByParams.zIncrByParams().xx());
+                }
+                pipeline.sync();
+            }
+            return exact.get().answer();
+        }
+
+        float[] embedding = embed(post);
+        List<Pair<SemanticCacheEntry, Double>> shortlist = entityStream.of(SemanticCacheEntry.class)
+                .filter(SemanticCacheEntry$.POST_EMBEDDING_COMPACT.knn(candidates, VectorUtils.toBytes(compact(embedding))))
+                .sorted(SemanticCacheEntry$._POST_EMBEDDING_COMPACT_SCORE)
+                .map(Fields.of(SemanticCacheEntry$._THIS, SemanticCacheEntry$._POST_EMBEDDING_COMPACT_SCORE))
+                .collect(Collectors.toList());
+
+        SemanticCacheEntry best = null;
+        double bestDistance = Double.MAX_VALUE;
+        List<String> stale = new ArrayList<>();
+        for (Pair<SemanticCacheEntry, Double> candidate : shortlist) {
+            SemanticCacheEntry entry = candidate.getFirst();
+            if (isStale(entry)) {
+                stale.add(entry.getId());
+                continue;
+            }
+            if (entry.getPostEmbedding() == null) {
+                continue;
+            }
+            double distance = 1 - VectorUtils.dot(embedding, VectorUtils.normalize(VectorUtils.toFloats(entry.getPostEmbedding())));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = entry;
+            }
+        }
+        if (!stale.isEmpty()) {
+            remove(stale, "invalidations");
+        }
+
+        boolean hit = best != null && bestDistance < maxDistance;
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.hincrBy(STATS_KEY, "lookups", 1);
+            pipeline.hincrBy(STATS_KEY, hit ? "hits" : "misses", 1);
+            if (best != null) {
+                pipeline.hincrBy(STATS_KEY, "distance:" + distanceBand(bestDistance), 1);
+                if (!shortlist.isEmpty() && best != shortlist.getFirst().getFirst()) {
+                    pipeline.hincrBy(STATS_KEY, "reranked", 1);
+                }
+            }
+            if (hit) {
+                // XX keeps hits on an entry that was evicted meanwhile from re-adding it
+                if (eviction == Eviction.LRU) {
+                    pipeline.zadd(USAGE_KEY, System.currentTimeMillis(), best.getId(), ZAddParams.zAddParams().xx());
+                } else {
+                    pipeline.zincrby(USAGE_KEY, 1, best.getId(), ZIncrByParams.zIncrByParams().xx());
+                }
+            }
+            pipeline.sync();
+        }
+        return hit ? best.getAnswer() : "";
+    }
+
+    // Entries that expired through their TTL are dropped from the bookkeeping sets
+    @Scheduled(fixedDelayString = "${semantic-cache.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        List<String> expired = jedisPooled.zrangeByScore(EXPIRY_KEY, 0, System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.zrem(USAGE_KEY, expired.toArray(String[]::new));
+            pipeline.zrem(EXPIRY_KEY, expired.toArray(String[]::new));
+            pipeline.hincrBy(STATS_KEY, "expirations", expired.size());
+            pipeline.sync();
+        }
+        exactMatchCache.remove(expired);
+    }
+
+    private void evictOverBudget() {
+        long excess = jedisPooled.zcard(USAGE_KEY) - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+
+        List<Tuple> popped = jedisPooled.zpopmin(USAGE_KEY, (int) excess);
+        if (eviction == Eviction.LFU && !popped.isEmpty()) {
+            jedisPooled.zadd(LFU_AGE_KEY, nextLfuAge(popped), LFU_AGE_MEMBER, ZAddParams.zAddParams().gt());
+        }
+        List<String> victims = popped.stream()
+                .map(Tuple::getElement)
+                .toList();
+        remove(victims, "evictions");
+        logger.info("Evicted {} semantic cache entries ({})", victims.size(), eviction);
+    }
+
+    private double lfuAge() {
+        Double age = jedisPooled.zscore(LFU_AGE_KEY, LFU_AGE_MEMBER);
+        return age != null ? age : 0;
+    }
+
+    private static double initialScore(Eviction eviction, long nowMs, double lfuAge) {
+        return eviction == Eviction.LRU ? nowMs : lfuAge + 1;
+    }
+
+    // Popped lowest first, so the last victim has the highest score
+    private static double nextLfuAge(List<Tuple> victims) {
+        return victims.getLast().getScore();
+    }
+
+    private void remove(List<String> ids, String reason) {
+        repository.deleteAllById(ids);
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.zrem(USAGE_KEY, ids.toArray(String[]::new));
+            pipeline.zrem(EXPIRY_KEY, ids.toArray(String[]::new));
+            pipeline.hincrBy(STATS_KEY, reason, ids.size());
+            pipeline.sync();
+        }
+        exactMatchCache.remove(ids);
+    }
+
+    private boolean isStale(SemanticCacheEntry entry) {
+        return entry.getTrendingBucket() != null && entry.getTrendingBucket() != currentTrendingBucket();
+    }
+
+    private long currentTrendingBucket() {
+        return TrendingWindow.HOUR.bucketStart(Instant.now().getEpochSecond());
+    }
+
+    private String distanceBand(double distance) {
+        double lower = 0;
+        for (double upper : DISTANCE_BANDS) {
+            if (distance < upper) {
+                return lower + "-" + upper;
+            }
+            lower = upper;
+        }
+        return lower + "+";
+    }
+
+    // Same OpenAI model (text-embedding-3-large) the routing references are vectorized with
+    private float[] embed(String text) {
+        byte[] bytes = embeddingService.embed(text, EmbeddingService.Model.OPENAI_TEXT_EMBEDDING_3_LARGE);
+        return VectorUtils.normalize(VectorUtils.toFloats(bytes));
+    }
+
+    private float[] compact(float[] embedding) {
+        return VectorUtils.normalize(Arrays.copyOf(embedding, Math.min(SemanticCacheEntry.COMPACT_DIMENSIONS, embedding.length)));
     }
-}
\ No newline at end of file
+}
@@ -1,53 +1,121 @@
 package com.redis.dataanalysisapp;
 
 import com.redis.om.spring.search.stream.EntityStream;
-import com.redis.om.spring.tuple.Fields;
-import com.redis.om.spring.tuple.Pair;
-import com.redis.om.spring.vectorize.Embedder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+// There are only a few dozen routing references, so they are kept in memory as normalized
+// vectors and scored locally. Matching a post costs one batched embedding call for all of its
+// clauses and no Redis round trips. The references are reloaded when the version key changes.
 @Service
 public class SemanticRouterService {
     private static final Logger logger = LoggerFactory.getLogger(SemanticRouterService.class);
-    private final Embedder embedder;
+    private static final String VERSION_KEY = "routing:version";
+    private final EmbeddingService embeddingService;
     private final EntityStream entityStream;
     private final RoutingRepository repository;
+    private final JedisPooled jedisPooled;
 
-    public SemanticRouterService(Embedder embedder, EntityStream entityStream, RoutingRepository repository) {
-        this.embedder = embedder;
+    private record RouteReference(String route, double minThreshold, float[] vector) {}
+
+    private volatile List<RouteReference> references = List.of();
+    private volatile String loadedVersion;
+
+    public SemanticRouterService(EmbeddingService embeddingService, EntityStream entityStream, RoutingRepository repository,
+                                 JedisPooled jedisPooled) {
+        this.embeddingService = embeddingService;
         this.entityStream = entityStream;
         this.repository = repository;
+        this.jedisPooled = jedisPooled;
     }
 
     boolean areReferencesLoaded() {
         return repository.count() > 0;
     }
 
-    void loadReferences(List<String> references, String route, double maxThreshold) {
-        // Implement loading of references into the repository
+    boolean areReferencesLoaded(String route) {
+        return entityStream.of(Routing.class)
+                .filter(Routing$.ROUTE.eq(route))
+                .count() > 0;
     }
 
-    private byte[] createEmbedding(String text) {
-        // Implement embedding creation logic
-        return null;
+    void loadReferences(List<String> references, String route, double maxThreshold) {
+        references.stream()
+                .map(reference -> {
+                    Routing routing = new Routing();
+                    routing.setRoute(route);
+                    routing.setMinThreshold(maxThreshold);
+                    routing.setText(reference);
+                    return routing;
+                }).forEach(repository::save);
+        jedisPooled.incr(VERSION_KEY);
+        refreshIfChanged();
     }
 
-    private Pair<Routing, Double> vectorSimilaritySearch(byte[] embedding) {
-        // Implement vector similarity search logic
-        return null;
+    @Scheduled(fixedDelayString = "${routing.refresh-interval-ms:30000}")
+    public void refreshIfChanged() {
+        String version = Objects.requireNonNullElse(jedisPooled.get(VERSION_KEY), "0");
+        if (version.equals(loadedVersion)) {
+            return;
+        }
+
+        List<RouteReference> loaded = new ArrayList<>();
+        repository.findAll().forEach(routing -> {
+            if (routing.getTextEmbedding() != null && routing.getMinThreshold() != null) {
+                loaded.add(new RouteReference(
+                        routing.getRoute(),
+                        routing.getMinThreshold(),
+                        VectorUtils.normalize(VectorUtils.toFloats(routing.getTextEmbedding()))));
+            }
+        });
+        references = loaded;
+        loadedVersion = version;
+        logger.info("Loaded {} routing references (version {})", loaded.size(), version);
     }
 
     public Set<String> matchRoute(String post) {
         List<String> clauses = breakSentenceIntoClauses(post);
+        if (clauses.isEmpty()) {
+            return Set.of();
+        }
+        if (loadedVersion == null) {
+            refreshIfChanged();
+        }
+
+        List<byte[]> embeddings = embeddingService.embed(clauses, EmbeddingService.Model.OPENAI_TEXT_EMBEDDING_3_LARGE);
+        List<RouteReference> current = references;
+
+        Set<String> routes = new HashSet<>();
+        for (int i = 0; i < clauses.size(); i++) {
+            float[] clause = VectorUtils.normalize(VectorUtils.toFloats(embeddings.get(i)));
+
+            // Same score as the COSINE KNN it replaces: 1 - cosine similarity, lower is closer
+            RouteReference best = null;
+            double bestScore = Double.MAX_VALUE;
+            for (RouteReference reference : current) {
+                double score = 1 - VectorUtils.dot(clause, reference.vector());
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = reference;
+                }
+            }
 
-        // Implement logic to match the route based on the clauses
-        return null;
+            if (best == null) {
+                continue;
+            }
+            logger.info("Clause: {} | Route: {} | Score: {} | Max Threshold: {}",
+                    clauses.get(i), best.route(), bestScore, best.minThreshold());
+            if (bestScore < best.minThreshold()) {
+                routes.add(best.route());
+            }
+        }
+        return routes;
     }
 
     private List<String> breakSentenceIntoClauses(String sentence) {
@@ -57,4 +125,4 @@ public class SemanticRouterService {
          .map(String::trim)
          .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
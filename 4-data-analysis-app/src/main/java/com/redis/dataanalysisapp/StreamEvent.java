@@ -33,6 +33,8 @@ public class StreamEvent {
     private String operation;
     private String uri;
     private String parentUri;
+
+    @TagIndexed
     private String rootUri;
 
     @TagIndexed
@@ -41,6 +43,20 @@ public class StreamEvent {
     @TagIndexed
     private List<String> topics;
 
+    // When the topic extractor stored the topics (epoch ms): summaries follow this rather than
+    // timeUs, since posts can be stored long after they were made
+    @NumericIndexed
+    private Long topicsStoredAt;
+
+    @TagIndexed
+    private List<String> tags;
+
+    @TagIndexed
+    private List<String> mentions;
+
+    @TagIndexed
+    private List<String> linkDomains;
+
     @Transient
     private String redisStreamEntryId;
 
@@ -85,7 +101,7 @@ public class StreamEvent {
             langsStr.replace("[", "").replace("]", "").split(", ")
         );
 
-        return new StreamEvent(
+        StreamEvent event = new StreamEvent(
                 fields.getOrDefault("uri", ""), // ID
                 fields.getOrDefault("did", ""),
                 fields.getOrDefault("rkey", ""),
@@ -98,6 +114,19 @@ public class StreamEvent {
                 langs,
                 entry.getID().toString()
         );
+        event.setTags(parseList(fields.get("tags")));
+        event.setMentions(parseList(fields.get("mentions")));
+        event.setLinkDomains(parseList(fields.get("linkDomains")));
+        return event;
+    }
+
+    private static List<String> parseList(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.replace("[", "").replace("]", "").split(", "))
+                .filter(item -> !item.isBlank())
+                .toList();
     }
 
     // Convert to Map for Redis Stream
@@ -112,6 +141,9 @@ public class StreamEvent {
         map.put("parentUri", this.parentUri);
         map.put("rootUri", this.rootUri);
         map.put("langs", this.langs.toString());
+        map.put("tags", this.tags != null ? this.tags.toString() : "[]");
+        map.put("mentions", this.mentions != null ? this.mentions.toString() : "[]");
+        map.put("linkDomains", this.linkDomains != null ? this.linkDomains.toString() : "[]");
         return map;
     }
 
@@ -143,6 +175,14 @@ public class StreamEvent {
         this.topics = topics;
     }
 
+    public Long getTopicsStoredAt() {
+        return topicsStoredAt;
+    }
+
+    public void setTopicsStoredAt(Long topicsStoredAt) {
+        this.topicsStoredAt = topicsStoredAt;
+    }
+
     public String getRedisStreamEntryId() {
         return redisStreamEntryId;
     }
@@ -150,4 +190,28 @@ public class StreamEvent {
     public void setRedisStreamEntryId(String redisStreamEntryId) {
         this.redisStreamEntryId = redisStreamEntryId;
     }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public List<String> getMentions() {
+        return mentions;
+    }
+
+    public void setMentions(List<String> mentions) {
+        this.mentions = mentions;
+    }
+
+    public List<String> getLinkDomains() {
+        return linkDomains;
+    }
+
+    public void setLinkDomains(List<String> linkDomains) {
+        this.linkDomains = linkDomains;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.redis.dataanalysisapp;
+
+import com.redis.om.spring.repository.RedisEnhancedRepository;
+
+public interface StreamEventRepository extends RedisEnhancedRepository<StreamEvent, String> {
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.redis.dataanalysisapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.ZParams;
+import redis.clients.jedis.resps.Tuple;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Reads the thread index maintained by the filter stage, which only indexes threads about AI
+@Service
+public class ThreadService {
+    private static final String THREAD_KEY_SPACE = "thread:";
+    private static final String LAST_ACTIVITY_KEY = "threads:last-activity";
+    private static final String HOT_KEY_SPACE = "threads-hot:";
+    private static final String HOT_UNION_KEY_SPACE = "threads-hot-union:";
+    private static final long HOT_UNION_TTL_SECONDS = 30;
+    private static final int MAX_THREAD_POSTS = 200;
+
+    private final JedisPooled jedisPooled;
+    private final EntityStream entityStream;
+    private final StreamEventRepository streamEventRepository;
+
+    @Value("${threads.hot.window:1h}")
+    private Duration hotWindow;
+
+    @Value("${threads.hot.limit:5}")
+    private int hotLimit;
+
+    public record HotThread(String rootUri, long repliesInWindow, long totalReplies, long lastActivityUs) {}
+
+    public ThreadService(JedisPooled jedisPooled, EntityStream entityStream, StreamEventRepository streamEventRepository) {
+        this.jedisPooled = jedisPooled;
+        this.entityStream = entityStream;
+        this.streamEventRepository = streamEventRepository;
+    }
+
+    public List<HotThread> getHotThreads(Duration window, int limit) {
+        String[] keys = TrendingWindow.forWindow(window)
+                .keys(HOT_KEY_SPACE, Instant.now().getEpochSecond(), window)
+                .toArray(String[]::new);
+
+        // The union is stored server-side and only the top of it is read back
+        String unionKey = HOT_UNION_KEY_SPACE + window.toSeconds();
+        Response<List<Tuple>> top;
+        try (var pipeline = jedisPooled.pipelined()) {
+            pipeline.zunionstore(unionKey, new ZParams().aggregate(ZParams.Aggregate.SUM), keys);
+            pipeline.expire(unionKey, HOT_UNION_TTL_SECONDS);
+            top = pipeline.zrevrangeWithScores(unionKey, 0, limit - 1);
+            pipeline.sync();
+        }
+        List<Tuple> hottest = top.get();
+
+        List<Response<Long>> totals = new ArrayList<>();
+        List<Response<Double>> lastActivity = new ArrayList<>();
+        try (var pipeline = jedisPooled.pipelined()) {
+            hottest.forEach(thread -> {
+                totals.add(pipeline.zcard(THREAD_KEY_SPACE + thread.getElement()));
+                lastActivity.add(pipeline.zscore(LAST_ACTIVITY_KEY, thread.getElement()));
+            });
+            pipeline.sync();
+        }
+
+        List<HotThread> threads = new ArrayList<>();
+        for (int i = 0; i < hottest.size(); i++) {
+            Double last = lastActivity.get(i).get();
+            threads.add(new HotThread(
+                    hottest.get(i).getElement(),
+                    Math.round(hottest.get(i).getScore()),
+                    totals.get(i).get(),
+                    last != null ? last.longValue() : 0));
+        }
+        return threads;
+    }
+
+    // The root post is only stored when it passed the AI filter itself; otherwise the thread is
+    // about AI because of its replies
+    public List<String> describeHotThreads() {
+        return getHotThreads(hotWindow, hotLimit).stream()
+                .map(thread -> "Thread " + thread.rootUri() + " (" + thread.repliesInWindow() + " replies in the last "
+                        + hotWindow.toMinutes() + " minutes, " + thread.totalReplies() + " in total)"
+                        + streamEventRepository.findById(thread.rootUri()).map(root -> ": " + root.getText()).orElse(""))
+                .toList();
+    }
+
+    // The root post first, then its replies in the order they were made; replies are fetched
+    // with one search on the rootUri tag instead of one read per post
+    public List<StreamEvent> getThread(String rootUri) {
+        List<StreamEvent> thread = new ArrayList<>();
+        streamEventRepository.findById(rootUri).ifPresent(thread::add);
+        thread.addAll(entityStream.of(StreamEvent.class)
+                .filter(StreamEvent$.ROOT_URI.eq(rootUri))
+                .sorted(StreamEvent$.TIME_US)
+                .limit(MAX_THREAD_POSTS)
+                .collect(Collectors.toList()));
+        return thread;
+    }
+}
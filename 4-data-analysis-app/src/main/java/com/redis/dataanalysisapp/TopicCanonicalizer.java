@@ -0,0 +1,97 @@
+package com.redis.dataanalysisapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import com.redis.om.spring.tuple.Fields;
+import com.redis.om.spring.tuple.Pair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class TopicCanonicalizer {
+    public static final String ALIASES_KEY = "topic-aliases";
+    private static final Set<String> NOT_PLURAL = Set.of(
+            "news", "kubernetes", "windows", "series", "species", "macos", "chaos", "postgres");
+
+    private final JedisPooled jedis;
+    private final EmbeddingService embeddingService;
+    private final EntityStream entityStream;
+
+    @Value("${topics.canonical.merge-distance:0.2}")
+    private double mergeDistance;
+
+    public TopicCanonicalizer(JedisPooled jedis, EmbeddingService embeddingService, EntityStream entityStream) {
+        this.jedis = jedis;
+        this.embeddingService = embeddingService;
+        this.entityStream = entityStream;
+    }
+
+    // Copy of the topic extractor's normalization, which writes the aliases (the apps share no code):
+    // change both copies, and both TopicCanonicalizerTests, together
+    public static String normalize(String topic) {
+        String normalized = topic.toLowerCase(Locale.ROOT)
+                .replaceAll("[\"'`]", "")
+                .replaceAll("[\\s_-]+", " ")
+                .trim();
+
+        // "LLMs" and "LLM" should share an alias entry
+        return singular(normalized);
+    }
+
+    // Only the last word is a plural candidate: "large language models" -> "large language model".
+    // Words ending in -ss, -is, -us or -ics are usually singular already ("analysis", "ethics")
+    private static String singular(String normalized) {
+        int lastSpace = normalized.lastIndexOf(' ');
+        String word = normalized.substring(lastSpace + 1);
+        if (word.length() <= 3 || !word.endsWith("s") || NOT_PLURAL.contains(word)
+                || word.endsWith("ss") || word.endsWith("is") || word.endsWith("us") || word.endsWith("ics")) {
+            return normalized;
+        }
+
+        String stem = word.length() > 4 && word.endsWith("ies")
+                ? word.substring(0, word.length() - 3) + "y"
+                : word.substring(0, word.length() - 1);
+        return normalized.substring(0, lastSpace + 1) + stem;
+    }
+
+    // Read-only: topics mentioned in user queries are mapped to canonical IDs, never added to the vocabulary
+    public List<String> canonicalize(List<String> topics) {
+        List<String> surfaces = topics.stream()
+                .map(String::trim)
+                .filter(topic -> !topic.isEmpty())
+                .toList();
+
+        if (surfaces.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> stored = jedis.hmget(ALIASES_KEY, surfaces.stream()
+                .map(TopicCanonicalizer::normalize)
+                .toArray(String[]::new));
+
+        List<String> canonical = new ArrayList<>();
+        for (int i = 0; i < surfaces.size(); i++) {
+            canonical.add(stored.get(i) != null ? stored.get(i) : nearestCanonical(surfaces.get(i)));
+        }
+        return canonical.stream().distinct().toList();
+    }
+
+    private String nearestCanonical(String surface) {
+        byte[] embedding = embeddingService.embed(surface, EmbeddingService.Model.ALL_MINILM_L6_V2);
+
+        List<Pair<Topic, Double>> scores = entityStream.of(Topic.class)
+                .filter(Topic$.NAME_EMBEDDING.knn(1, embedding))
+                .sorted(Topic$._NAME_EMBEDDING_SCORE)
+                .map(Fields.of(Topic$._THIS, Topic$._NAME_EMBEDDING_SCORE))
+                .collect(Collectors.toList());
+
+        return scores.stream()
+                .filter(score -> score.getSecond() < mergeDistance)
+                .findFirst()
+                .map(score -> score.getFirst().getId())
+                .orElse(surface);
+    }
+}
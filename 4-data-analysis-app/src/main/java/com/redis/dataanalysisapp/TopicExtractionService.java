@@ -13,21 +13,27 @@ import redis.clients.jedis.JedisPooled;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 @Service
 public class TopicExtractionService {
     private static final Logger logger = LoggerFactory.getLogger(TopicExtractionService.class);
     private final JedisPooled jedis;
     private final OpenAiChatModel chatModel;
+    private final TopicVocabularyService topicVocabularyService;
+    private final TopicCanonicalizer topicCanonicalizer;
 
-    public TopicExtractionService(JedisPooled jedisPooled, OpenAiChatModel chatModel) {
+    public TopicExtractionService(JedisPooled jedisPooled, OpenAiChatModel chatModel,
+                                  TopicVocabularyService topicVocabularyService, TopicCanonicalizer topicCanonicalizer) {
         this.jedis = jedisPooled;
         this.chatModel = chatModel;
+        this.topicVocabularyService = topicVocabularyService;
+        this.topicCanonicalizer = topicCanonicalizer;
     }
 
+    // Only the nearest existing topics are sent, so the prompt stays flat as the vocabulary grows.
+    // The system message never changes, which keeps it cacheable as a prompt prefix.
     public List<String> extractTopics(String post) {
-        Set<String> existingTopics = jedis.smembers("topics");
+        List<String> existingTopics = topicVocabularyService.nearestTopics(post);
         List<Message> messages = List.of(
                 new SystemMessage(PROMPT),
                 new UserMessage("Existing topics: " + existingTopics),
@@ -41,12 +47,12 @@ public class TopicExtractionService {
                 ? response.getResult().getOutput().getText()
                 : "";
 
-        return Arrays.stream(topics
+        return topicCanonicalizer.canonicalize(Arrays.stream(topics
                         .replace("\"", "")
                         .split(","))
                 .map(String::trim)
                 .filter(t -> !t.isEmpty())
-                .toList();
+                .toList());
     }
 
     private static final String PROMPT = """
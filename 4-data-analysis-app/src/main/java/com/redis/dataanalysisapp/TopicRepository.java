@@ -0,0 +1,6 @@
+package com.redis.dataanalysisapp;
+
+import com.redis.om.spring.repository.RedisEnhancedRepository;
+
+public interface TopicRepository extends RedisEnhancedRepository<Topic, String> {
+}
@@ -0,0 +1,107 @@
+package com.redis.dataanalysisapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPooled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+// Keeps a ready-made summary for each of the current trending topics, so the summarization
+// route can answer from Redis instead of retrieving and summarizing on the request path.
+// Refreshes are incremental: the summarizer reuses its cached per-hour partials, and topics
+// without newly stored posts are skipped until their summary reaches max-age.
+@Service
+public class TopicSummaryMaterializer {
+    private static final Logger logger = LoggerFactory.getLogger(TopicSummaryMaterializer.class);
+    private static final String KEY_SPACE = "topic-summary:";
+
+    private final JedisPooled jedisPooled;
+    private final TrendingTopicsAnalyzer trendingTopicsAnalyzer;
+    private final HierarchicalSummarizer hierarchicalSummarizer;
+
+    @Value("${summaries.window:24h}")
+    private Duration window;
+
+    @Value("${summaries.max-age:1h}")
+    private Duration maxAge;
+
+    @Value("${summaries.max-staleness:30m}")
+    private Duration maxStaleness;
+
+    public TopicSummaryMaterializer(JedisPooled jedisPooled, TrendingTopicsAnalyzer trendingTopicsAnalyzer,
+                                    HierarchicalSummarizer hierarchicalSummarizer) {
+        this.jedisPooled = jedisPooled;
+        this.trendingTopicsAnalyzer = trendingTopicsAnalyzer;
+        this.hierarchicalSummarizer = hierarchicalSummarizer;
+    }
+
+    @Scheduled(fixedDelayString = "${summaries.refresh-interval-ms:300000}", initialDelay = 60000)
+    public void refresh() {
+        long now = Instant.now().getEpochSecond();
+        int refreshed = 0;
+        for (String topic : trendingTopicsAnalyzer.getTrendingTopics()) {
+            try {
+                if (refreshTopic(topic, now)) {
+                    refreshed++;
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to materialize summary for '{}': {}", topic, e.getMessage());
+            }
+        }
+        logger.info("Materialized summaries refreshed for {} topics", refreshed);
+    }
+
+    public Optional<String> getSummary(String topic) {
+        Map<String, String> fields = jedisPooled.hgetAll(KEY_SPACE + topic);
+        if (fields.isEmpty() || fields.getOrDefault("summary", "").isBlank()) {
+            return Optional.empty();
+        }
+
+        long checkedAt = Long.parseLong(fields.getOrDefault("checkedAt", "0"));
+        if (Instant.now().getEpochSecond() - checkedAt > maxStaleness.toSeconds()) {
+            return Optional.empty();
+        }
+        return Optional.of(fields.get("summary"));
+    }
+
+    private boolean refreshTopic(String topic, long now) {
+        String key = KEY_SPACE + topic;
+        Map<String, String> current = jedisPooled.hgetAll(key);
+        if (!current.isEmpty()) {
+            long generatedAt = Long.parseLong(current.getOrDefault("generatedAt", "0"));
+            long storedUntilMs = Long.parseLong(current.getOrDefault("storedUntilMs", "0"));
+            if (now - generatedAt < maxAge.toSeconds() && !hasNewPosts(topic, storedUntilMs)) {
+                // Nothing new: the summary is still current
+                jedisPooled.hset(key, "checkedAt", String.valueOf(now));
+                return false;
+            }
+        }
+
+        HierarchicalSummarizer.TopicSummary summary = hierarchicalSummarizer.summarizeTopic(topic, window);
+        if (summary.summary().isBlank()) {
+            return false;
+        }
+
+        jedisPooled.hset(key, Map.of(
+                "summary", summary.summary(),
+                "posts", String.valueOf(summary.posts()),
+                "lastTimeUs", String.valueOf(summary.lastTimeUs()),
+                "storedUntilMs", String.valueOf(summary.storedUntilMs()),
+                "generatedAt", String.valueOf(now),
+                "checkedAt", String.valueOf(now)
+        ));
+        jedisPooled.expire(key, window.toSeconds());
+        return true;
+    }
+
+    // By store time: a late post for an older minute still counts as new
+    private boolean hasNewPosts(String topic, long storedUntilMs) {
+        return hierarchicalSummarizer.countPostsStoredSince(topic, window, storedUntilMs) > 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.redis.dataanalysisapp;
+
+import com.redis.om.spring.search.stream.EntityStream;
+import com.redis.om.spring.tuple.Fields;
+import com.redis.om.spring.tuple.Pair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class TopicVocabularyService {
+    private final EmbeddingService embeddingService;
+    private final EntityStream entityStream;
+
+    @Value("${topics.vocabulary.k:20}")
+    private int k;
+
+    public TopicVocabularyService(EmbeddingService embeddingService, EntityStream entityStream) {
+        this.embeddingService = embeddingService;
+        this.entityStream = entityStream;
+    }
+
+    public List<String> nearestTopics(String text) {
+        byte[] embedding = embeddingService.embed(text, EmbeddingService.Model.ALL_MINILM_L6_V2);
+
+        List<Pair<Topic, Double>> scores = entityStream.of(Topic.class)
+                .filter(Topic$.NAME_EMBEDDING.knn(k, embedding))
+                .sorted(Topic$._NAME_EMBEDDING_SCORE)
+                .map(Fields.of(Topic$._THIS, Topic$._NAME_EMBEDDING_SCORE))
+                .collect(Collectors.toList());
+
+        return scores.stream()
+                .map(score -> score.getFirst().getName())
+                .toList();
+    }
+}
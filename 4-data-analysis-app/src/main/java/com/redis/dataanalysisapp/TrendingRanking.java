@@ -0,0 +1,10 @@
+package com.redis.dataanalysisapp;
+
+public enum TrendingRanking {
+    // Most mentioned topics in the window
+    POPULAR,
+    // Topics whose recent mention rate is highest relative to their usual rate
+    RISING,
+    // Topics posted about by the most distinct accounts in the window
+    UNIQUE_AUTHORS
+}
@@ -1,22 +1,228 @@
 package com.redis.dataanalysisapp;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import redis.clients.jedis.JedisPooled;
-import java.time.LocalDateTime;
-import java.util.List;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.resps.Tuple;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class TrendingTopicsAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(TrendingTopicsAnalyzer.class);
+    private static final String TOPK_KEY_SPACE = "topics-topk:";
+    private static final String HASHTAGS_KEY_SPACE = "hashtags-topk:";
+    private static final String DOMAINS_KEY_SPACE = "domains-topk:";
+    private static final String AUTHORS_KEY_SPACE = "topic-authors:";
+    private static final int TOP_K = 15;
+    private static final String DECAY_SHORT_KEY = "topics-decay:short";
+    private static final String DECAY_LONG_KEY = "topics-decay:long";
+    private static final String DECAY_LANDMARKS_KEY = "topics-decay:landmarks";
+    private static final int RISING_CANDIDATES = 200;
+
     private final JedisPooled jedisPooled;
-    private final TopKService topKService;
+    private final Map<Duration, CachedRanking<Long>> cache = new ConcurrentHashMap<>();
+    private final Map<Duration, CachedRanking<Long>> authorCache = new ConcurrentHashMap<>();
+    private volatile CachedRanking<Double> risingCache;
+
+    @Value("${trending.default-window:1h}")
+    private Duration defaultWindow;
+
+    @Value("${trending.cache-ttl:30s}")
+    private Duration cacheTtl;
+
+    @Value("${trending.decay.short-half-life:1h}")
+    private Duration shortHalfLife;
+
+    @Value("${trending.decay.long-half-life:24h}")
+    private Duration longHalfLife;
 
-    public TrendingTopicsAnalyzer(JedisPooled jedisPooled, TopKService topKService) {
-        this.jedisPooled = new JedisPooled();
-        this.topKService = topKService;
+    @Value("${trending.rising.min-mentions:5}")
+    private double risingMinMentions;
+
+    private record CachedRanking<T>(long expiresAtMs, List<Map.Entry<String, T>> ranking) {}
+
+    public TrendingTopicsAnalyzer(JedisPooled jedisPooled) {
+        this.jedisPooled = jedisPooled;
     }
 
     public List<String> getTrendingTopics() {
-        // Implement logic to retrieve trending topics
-        return null;
+        return getTrendingTopics(defaultWindow);
+    }
+
+    public List<String> getTrendingTopics(Duration window) {
+        return getTrendingTopicCounts(window).stream()
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public List<String> getTrendingTopics(TrendingRanking ranking) {
+        return switch (ranking) {
+            case POPULAR -> getTrendingTopics();
+            case RISING -> getRisingTopicScores().stream()
+                    .map(Map.Entry::getKey)
+                    .toList();
+            case UNIQUE_AUTHORS -> getUniqueAuthorCounts(defaultWindow).stream()
+                    .map(Map.Entry::getKey)
+                    .toList();
+        };
+    }
+
+    public List<Map.Entry<String, Long>> getTrendingTopicCounts(Duration window) {
+        CachedRanking<Long> cached = cache.get(window);
+        if (cached != null && cached.expiresAtMs() > System.currentTimeMillis()) {
+            return cached.ranking();
+        }
+
+        List<Map.Entry<String, Long>> ranking = mergeBuckets(TOPK_KEY_SPACE, window).stream()
+                .limit(TOP_K)
+                .toList();
+        cache.put(window, new CachedRanking<>(System.currentTimeMillis() + cacheTtl.toMillis(), ranking));
+        return ranking;
+    }
+
+    // Hashtags and link domains are counted for every post by the filter stage, not only the
+    // ones that went through topic extraction
+    public List<Map.Entry<String, Long>> getTrendingHashtags(Duration window) {
+        return mergeBuckets(HASHTAGS_KEY_SPACE, window).stream()
+                .limit(TOP_K)
+                .toList();
+    }
+
+    public List<Map.Entry<String, Long>> getTrendingDomains(Duration window) {
+        return mergeBuckets(DOMAINS_KEY_SPACE, window).stream()
+                .limit(TOP_K)
+                .toList();
+    }
+
+    // Candidates come from the merged TopK buckets; each is then scored by the union of its
+    // per-bucket HyperLogLogs, so one account posting many times only counts once
+    public List<Map.Entry<String, Long>> getUniqueAuthorCounts(Duration window) {
+        CachedRanking<Long> cached = authorCache.get(window);
+        if (cached != null && cached.expiresAtMs() > System.currentTimeMillis()) {
+            return cached.ranking();
+        }
+
+        List<Map.Entry<String, Long>> candidates = mergeBuckets(TOPK_KEY_SPACE, window);
+        List<String> bucketKeys = TrendingWindow.forWindow(window)
+                .keys(AUTHORS_KEY_SPACE, Instant.now().getEpochSecond(), window);
+
+        Map<String, Response<Long>> responses = new HashMap<>();
+        try (var pipeline = jedisPooled.pipelined()) {
+            candidates.forEach(candidate -> responses.put(candidate.getKey(), pipeline.pfcount(bucketKeys.stream()
+                    .map(key -> key + ":" + candidate.getKey())
+                    .toArray(String[]::new))));
+            pipeline.sync();
+        }
+
+        Map<String, Long> mentions = new HashMap<>();
+        candidates.forEach(candidate -> mentions.put(candidate.getKey(), candidate.getValue()));
+
+        List<Map.Entry<String, Long>> ranking = responses.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().get()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Comparator.<Map.Entry<String, Long>>comparingLong(Map.Entry::getValue).reversed()
+                        .thenComparing(entry -> mentions.get(entry.getKey()), Comparator.reverseOrder()))
+                .limit(TOP_K)
+                .toList();
+        authorCache.put(window, new CachedRanking<>(System.currentTimeMillis() + cacheTtl.toMillis(), ranking));
+        return ranking;
+    }
+
+    public List<Map.Entry<String, Double>> getRisingTopicScores() {
+        CachedRanking<Double> cached = risingCache;
+        if (cached != null && cached.expiresAtMs() > System.currentTimeMillis()) {
+            return cached.ranking();
+        }
+
+        List<Map.Entry<String, Double>> ranking = rankRising();
+        risingCache = new CachedRanking<>(System.currentTimeMillis() + cacheTtl.toMillis(), ranking);
+        return ranking;
+    }
+
+    // The decayed sets are stored relative to a landmark time; scaling by 2^(-(now - landmark) / halfLife)
+    // turns a stored score into the number of mentions weighted by age. Dividing by the half-life gives a
+    // rate, so a topic rises when its short-term rate is well above its long-term one.
+    private List<Map.Entry<String, Double>> rankRising() {
+        long now = Instant.now().getEpochSecond();
+
+        Response<List<String>> landmarks;
+        Response<List<Tuple>> candidates;
+        try (var pipeline = jedisPooled.pipelined()) {
+            landmarks = pipeline.hmget(DECAY_LANDMARKS_KEY, DECAY_SHORT_KEY, DECAY_LONG_KEY);
+            candidates = pipeline.zrevrangeWithScores(DECAY_SHORT_KEY, 0, RISING_CANDIDATES - 1);
+            pipeline.sync();
+        }
+        if (candidates.get().isEmpty() || landmarks.get().get(0) == null) {
+            return List.of();
+        }
+
+        String[] topics = candidates.get().stream()
+                .map(Tuple::getElement)
+                .toArray(String[]::new);
+        List<Double> longScores = jedisPooled.zmscore(DECAY_LONG_KEY, topics);
+
+        double shortScale = decayScale(landmarks.get().get(0), now, shortHalfLife);
+        double longScale = decayScale(landmarks.get().get(1), now, longHalfLife);
+
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < topics.length; i++) {
+            double shortCount = candidates.get().get(i).getScore() * shortScale;
+            if (shortCount < risingMinMentions) {
+                continue;
+            }
+
+            Double longScore = longScores.get(i);
+            double longCount = longScore != null ? longScore * longScale : 0;
+            double shortRate = shortCount / shortHalfLife.toSeconds();
+            // One extra mention smooths topics that have never been seen before
+            double longRate = (longCount + 1) / longHalfLife.toSeconds();
+            scores.put(topics[i], shortRate / longRate);
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(TOP_K)
+                .toList();
+    }
+
+    private double decayScale(String landmark, long now, Duration halfLife) {
+        if (landmark == null) {
+            return 0;
+        }
+        return Math.pow(2, -(now - Double.parseDouble(landmark)) / halfLife.toSeconds());
+    }
+
+    // Each bucket only keeps its own top items, so the merged counts are a close approximation
+    private List<Map.Entry<String, Long>> mergeBuckets(String keySpace, Duration window) {
+        List<String> keys = TrendingWindow.forWindow(window)
+                .keys(keySpace, Instant.now().getEpochSecond(), window);
+
+        List<Response<Map<String, Long>>> responses = new ArrayList<>();
+        try (var pipeline = jedisPooled.pipelined()) {
+            keys.forEach(key -> responses.add(pipeline.topkListWithCount(key)));
+            pipeline.sync();
+        }
+
+        Map<String, Long> merged = new HashMap<>();
+        for (Response<Map<String, Long>> response : responses) {
+            try {
+                response.get().forEach((topic, count) -> merged.merge(topic, count, Long::sum));
+            } catch (JedisDataException e) {
+                // Buckets without posts were never created or have already expired
+                logger.debug(e.getMessage());
+            }
+        }
+
+        return merged.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .toList();
     }
-}
\ No newline at end of file
+}
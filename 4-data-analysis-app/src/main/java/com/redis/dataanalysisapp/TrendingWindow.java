@@ -0,0 +1,46 @@
+package com.redis.dataanalysisapp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Must match the buckets written by the topic extractor: minute buckets for short windows,
+// hour buckets for long ones
+public enum TrendingWindow {
+    MINUTE("1m", Duration.ofMinutes(1)),
+    HOUR("1h", Duration.ofHours(1));
+
+    private final String label;
+    private final Duration bucketSize;
+
+    TrendingWindow(String label, Duration bucketSize) {
+        this.label = label;
+        this.bucketSize = bucketSize;
+    }
+
+    public static TrendingWindow forWindow(Duration window) {
+        return window.compareTo(Duration.ofHours(2)) <= 0 ? MINUTE : HOUR;
+    }
+
+    public Duration getBucketSize() {
+        return bucketSize;
+    }
+
+    public long bucketStart(long epochSeconds) {
+        return epochSeconds - Math.floorMod(epochSeconds, bucketSize.toSeconds());
+    }
+
+    public String key(String keySpace, long epochSeconds) {
+        return keySpace + label + ":" + bucketStart(epochSeconds);
+    }
+
+    // Every bucket that overlaps [now - window, now], newest first
+    public List<String> keys(String keySpace, long nowEpochSeconds, Duration window) {
+        List<String> keys = new ArrayList<>();
+        long from = nowEpochSeconds - window.toSeconds();
+        for (long bucket = bucketStart(nowEpochSeconds); bucket + bucketSize.toSeconds() > from; bucket -= bucketSize.toSeconds()) {
+            keys.add(keySpace + label + ":" + bucket);
+        }
+        return keys;
+    }
+}
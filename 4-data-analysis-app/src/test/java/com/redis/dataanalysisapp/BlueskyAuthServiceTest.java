@@ -0,0 +1,35 @@
+package com.redis.dataanalysisapp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlueskyAuthServiceTest {
+
+    private static HttpClientErrorException error(HttpStatus status, String body) {
+        return HttpClientErrorException.create(status, status.getReasonPhrase(), new HttpHeaders(),
+                body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void treatsExpiredAndInvalidTokensAsRejectedSessions() {
+        assertTrue(BlueskyAuthService.isSessionRejected(error(HttpStatus.BAD_REQUEST,
+                "{\"error\":\"ExpiredToken\",\"message\":\"Token has expired\"}")));
+        assertTrue(BlueskyAuthService.isSessionRejected(error(HttpStatus.BAD_REQUEST,
+                "{\"error\":\"InvalidToken\",\"message\":\"Token could not be verified\"}")));
+        assertTrue(BlueskyAuthService.isSessionRejected(error(HttpStatus.UNAUTHORIZED, "")));
+    }
+
+    @Test
+    void doesNotRenewTheSessionForOtherBadRequests() {
+        assertFalse(BlueskyAuthService.isSessionRejected(error(HttpStatus.BAD_REQUEST,
+                "{\"error\":\"InvalidRequest\",\"message\":\"Record/text must not be longer than 300 graphemes\"}")));
+        assertFalse(BlueskyAuthService.isSessionRejected(error(HttpStatus.TOO_MANY_REQUESTS, "")));
+    }
+}
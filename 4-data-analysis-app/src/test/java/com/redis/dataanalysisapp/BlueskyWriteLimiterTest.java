@@ -0,0 +1,81 @@
+package com.redis.dataanalysisapp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BlueskyWriteLimiterTest {
+    private static final String PREFIX = "bluesky:write-points:did:plc:test:";
+    private static final long NOW_MS = Instant.parse("2026-10-18T12:59:30Z").toEpochMilli();
+
+    private final JedisPooled jedisPooled = mock(JedisPooled.class);
+    private final Pipeline pipeline = mock(Pipeline.class);
+    private final BlueskyWriteLimiter limiter = new BlueskyWriteLimiter(jedisPooled, "did:plc:test", 5000, 35000, 3, 50);
+
+    @BeforeEach
+    void setUp() {
+        when(jedisPooled.pipelined()).thenReturn(pipeline);
+        Response<Long> firstCreate = used(3);
+        when(pipeline.incrBy(anyString(), anyLong())).thenReturn(firstCreate);
+    }
+
+    @Test
+    void chargesEveryWindowOfTheAccount() {
+        assertEquals(0, limiter.tryAcquire(NOW_MS));
+
+        verify(pipeline).incrBy(PREFIX + "minute:" + (NOW_MS - 30_000) / 1_000, 3);
+        verify(pipeline).incrBy(eq(PREFIX + "hour:" + Instant.parse("2026-10-18T12:00:00Z").getEpochSecond()), eq(3L));
+        verify(pipeline).incrBy(eq(PREFIX + "day:" + Instant.parse("2026-10-18T00:00:00Z").getEpochSecond()), eq(3L));
+        verify(pipeline).expire(startsWith(PREFIX + "hour:"), eq(7_200L));
+        verify(pipeline, never()).decrBy(anyString(), anyLong());
+    }
+
+    @Test
+    void waitsForTheSpentWindowToRollOverAndHandsThePointsBack() {
+        Response<Long> hourSpent = used(5_001);
+        when(pipeline.incrBy(startsWith(PREFIX + "hour:"), anyLong())).thenReturn(hourSpent);
+
+        assertEquals(30_000, limiter.tryAcquire(NOW_MS));
+        verify(pipeline, times(3)).decrBy(anyString(), eq(3L));
+    }
+
+    @Test
+    void capsCreatesPerMinuteAtTheBurst() {
+        Response<Long> burstSpent = used(153);
+        when(pipeline.incrBy(startsWith(PREFIX + "minute:"), anyLong())).thenReturn(burstSpent);
+
+        assertEquals(30_000, limiter.tryAcquire(NOW_MS));
+    }
+
+    @Test
+    void waitsForTheLatestOfSeveralSpentWindows() {
+        Response<Long> burstSpent = used(153);
+        when(pipeline.incrBy(startsWith(PREFIX + "minute:"), anyLong())).thenReturn(burstSpent);
+        Response<Long> daySpent = used(35_001);
+        when(pipeline.incrBy(startsWith(PREFIX + "day:"), anyLong())).thenReturn(daySpent);
+
+        assertEquals(Instant.parse("2026-10-19T00:00:00Z").toEpochMilli() - NOW_MS, limiter.tryAcquire(NOW_MS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Response<Long> used(long points) {
+        Response<Long> response = mock(Response.class);
+        when(response.get()).thenReturn(points);
+        return response;
+    }
+}
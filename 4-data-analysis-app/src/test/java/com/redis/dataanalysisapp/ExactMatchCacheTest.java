@@ -0,0 +1,26 @@
+package com.redis.dataanalysisapp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ExactMatchCacheTest {
+
+    @Test
+    void ignoresCaseWhitespaceAndSurroundingPunctuation() {
+        assertEquals("what is trending in ai", ExactMatchCache.normalize("  What is   trending in AI?? "));
+        assertEquals("what is trending in ai", ExactMatchCache.normalize("\"what is trending\tin ai\"."));
+    }
+
+    @Test
+    void keepsPunctuationInsideTheQuestion() {
+        assertEquals("summarize gpt-5 vs. claude", ExactMatchCache.normalize("Summarize GPT-5 vs. Claude!"));
+        assertNotEquals(ExactMatchCache.normalize("gpt-4"), ExactMatchCache.normalize("gpt 4"));
+    }
+
+    @Test
+    void normalizesBlankTextToEmpty() {
+        assertEquals("", ExactMatchCache.normalize(" ?! "));
+    }
+}
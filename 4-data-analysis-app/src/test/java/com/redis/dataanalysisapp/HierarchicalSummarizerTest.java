@@ -0,0 +1,33 @@
+package com.redis.dataanalysisapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HierarchicalSummarizerTest {
+
+    @Test
+    void packsTextsGreedilyInOrder() {
+        assertEquals(List.of(List.of("aaaa", "bbbb"), List.of("cccc", "dd"), List.of("eeeeee")),
+                HierarchicalSummarizer.chunk(List.of("aaaa", "bbbb", "cccc", "dd", "eeeeee"), 8));
+    }
+
+    @Test
+    void givesOversizedTextsTheirOwnChunk() {
+        assertEquals(List.of(List.of("a"), List.of("bbbbbbbbbbbb"), List.of("c")),
+                HierarchicalSummarizer.chunk(List.of("a", "bbbbbbbbbbbb", "c"), 8));
+    }
+
+    @Test
+    void returnsNoChunksForNoTexts() {
+        assertEquals(List.of(), HierarchicalSummarizer.chunk(List.of(), 8));
+    }
+
+    @Test
+    void pairsOversizedSummariesSoEachRoundShrinks() {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")),
+                HierarchicalSummarizer.pairs(List.of("a", "b", "c", "d", "e")));
+    }
+}
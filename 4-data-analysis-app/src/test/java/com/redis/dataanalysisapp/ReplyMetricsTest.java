@@ -0,0 +1,33 @@
+package com.redis.dataanalysisapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplyMetricsTest {
+
+    @Test
+    void usesTheNearestRankPercentile() {
+        List<Long> samples = LongStream.rangeClosed(1, 100).boxed().toList();
+
+        assertEquals(50L, ReplyMetrics.percentile(samples, 0.5));
+        assertEquals(95L, ReplyMetrics.percentile(samples, 0.95));
+        assertEquals(100L, ReplyMetrics.percentile(samples, 1.0));
+    }
+
+    @Test
+    void handlesSmallSamples() {
+        assertEquals(7L, ReplyMetrics.percentile(List.of(7L), 0.5));
+        assertEquals(7L, ReplyMetrics.percentile(List.of(7L), 0.95));
+        assertEquals(3L, ReplyMetrics.percentile(List.of(3L, 9L), 0.5));
+        assertEquals(9L, ReplyMetrics.percentile(List.of(3L, 9L), 0.95));
+    }
+
+    @Test
+    void reportsMissingSamplesAsNotAvailable() {
+        assertEquals("n/a", ReplyMetrics.percentile(List.of(), 0.5));
+    }
+}
@@ -0,0 +1,84 @@
+package com.redis.dataanalysisapp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.params.ZAddParams;
+import redis.clients.jedis.params.ZIncrByParams;
+import redis.clients.jedis.resps.Tuple;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SemanticCacheServiceTest {
+    private final SemanticCacheRepository repository = mock(SemanticCacheRepository.class);
+    private final EmbeddingService embeddingService = mock(EmbeddingService.class);
+    private final JedisPooled jedisPooled = mock(JedisPooled.class);
+    private final Pipeline pipeline = mock(Pipeline.class);
+    private final ExactMatchCache exactMatchCache = mock(ExactMatchCache.class);
+    private SemanticCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SemanticCacheService(repository, embeddingService, null, jedisPooled, exactMatchCache,
+                "summarization=6h");
+        ReflectionTestUtils.setField(service, "eviction", SemanticCacheService.Eviction.LFU);
+        ReflectionTestUtils.setField(service, "maxEntries", 2L);
+        ReflectionTestUtils.setField(service, "defaultTtl", Duration.ofHours(24));
+
+        when(jedisPooled.pipelined()).thenReturn(pipeline);
+        when(embeddingService.embed(anyString(), any())).thenReturn(VectorUtils.toBytes(new float[]{1, 0, 0, 0}));
+        when(repository.save(any())).thenAnswer(invocation -> {
+            SemanticCacheEntry entry = invocation.getArgument(0);
+            entry.setId("new");
+            return entry;
+        });
+    }
+
+    @Test
+    void startsANewLfuEntryAboveTheHighestScoreEvictedSoFar() {
+        when(jedisPooled.zscore(SemanticCacheService.LFU_AGE_KEY, "age")).thenReturn(5.0);
+        when(jedisPooled.zcard(SemanticCacheService.USAGE_KEY)).thenReturn(2L);
+
+        service.insertIntoCache("What are people saying about agents?", "answer", Set.of("summarization"));
+
+        verify(pipeline).zadd(SemanticCacheService.USAGE_KEY, 6.0, "new");
+        verify(jedisPooled, never()).zpopmin(anyString(), anyInt());
+    }
+
+    @Test
+    void evictsTheLowestScoresAndRaisesTheAgeToTheHighestEvicted() {
+        when(jedisPooled.zcard(SemanticCacheService.USAGE_KEY)).thenReturn(4L);
+        when(jedisPooled.zpopmin(SemanticCacheService.USAGE_KEY, 2))
+                .thenReturn(List.of(new Tuple("a", 2.0), new Tuple("b", 3.0)));
+
+        service.insertIntoCache("What are people saying about agents?", "answer", Set.of("summarization"));
+
+        verify(repository).deleteAllById(List.of("a", "b"));
+        verify(exactMatchCache).remove(List.of("a", "b"));
+        verify(jedisPooled).zadd(eq(SemanticCacheService.LFU_AGE_KEY), eq(3.0), eq("age"), any(ZAddParams.class));
+    }
+
+    @Test
+    void countsAHitTowardsTheEntrysLfuScore() {
+        when(exactMatchCache.get("What's trending?"))
+                .thenReturn(Optional.of(new ExactMatchCache.Hit("entry-1", "answer", true)));
+
+        assertEquals("answer", service.getFromCache("What's trending?"));
+        verify(pipeline).zincrby(eq(SemanticCacheService.USAGE_KEY), eq(1.0), eq("entry-1"), any(ZIncrByParams.class));
+    }
+}
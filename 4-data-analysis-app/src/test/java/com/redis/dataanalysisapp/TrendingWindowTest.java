@@ -0,0 +1,43 @@
+package com.redis.dataanalysisapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrendingWindowTest {
+
+    @Test
+    void picksMinuteBucketsForShortWindows() {
+        assertEquals(TrendingWindow.MINUTE, TrendingWindow.forWindow(Duration.ofHours(2)));
+        assertEquals(TrendingWindow.HOUR, TrendingWindow.forWindow(Duration.ofHours(3)));
+    }
+
+    @Test
+    void alignsBucketsToTheirSize() {
+        assertEquals(3_600, TrendingWindow.HOUR.bucketStart(7_199));
+        assertEquals(120, TrendingWindow.MINUTE.bucketStart(179));
+        assertEquals("topics-topk:1m:120", TrendingWindow.MINUTE.key("topics-topk:", 179));
+    }
+
+    @Test
+    void listsEveryOverlappingBucketNewestFirst() {
+        // now = 10:30, window 2h: the 10:00, 09:00 and 08:00 buckets overlap [08:30, 10:30]
+        long now = 10 * 3_600 + 1_800;
+        assertEquals(List.of("k:1h:36000", "k:1h:32400", "k:1h:28800"),
+                TrendingWindow.HOUR.keys("k:", now, Duration.ofHours(2)));
+    }
+
+    @Test
+    void includesOnlyTheCurrentBucketForAZeroWindow() {
+        assertEquals(List.of("k:1m:60"), TrendingWindow.MINUTE.keys("k:", 90, Duration.ZERO));
+    }
+
+    @Test
+    void coversAnAlignedWindowExactly() {
+        assertEquals(List.of("k:1m:180", "k:1m:120", "k:1m:60"),
+                TrendingWindow.MINUTE.keys("k:", 180, Duration.ofMinutes(2)));
+    }
+}